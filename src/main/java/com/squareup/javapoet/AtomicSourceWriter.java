@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.squareup.javapoet.Util.checkNotNull;
+import static com.squareup.javapoet.Util.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes Java files to a directory using the standard directory structure, such that a file is
+ * either absent, as it was, or completely written. Each file is written to a temporary file next
+ * to it and then atomically renamed into place, so a build that crashes or is cancelled doesn't
+ * leave half-written sources behind.
+ *
+ * <p>With {@link Durability#NONE} each file is renamed as soon as it is written. That survives
+ * the process dying but not the machine losing power. With {@link Durability#GROUP_COMMIT} files
+ * are staged until {@link #commit()}, which forces the batch to disk, renames it, and then syncs
+ * once each package directory that files were renamed into and each of its ancestors up to the
+ * output directory:
+ * <pre>   {@code
+ *
+ *   try (AtomicSourceWriter writer =
+ *       AtomicSourceWriter.open(directory, AtomicSourceWriter.Durability.GROUP_COMMIT)) {
+ *     for (JavaFile javaFile : javaFiles) {
+ *       writer.write(javaFile);
+ *     }
+ *   }
+ * }</pre>
+ *
+ * {@link #write(JavaFile)} may be called from any number of threads.
+ */
+public final class AtomicSourceWriter implements Closeable {
+  /** What survives a crash. */
+  public enum Durability {
+    /** Files are renamed into place as they are written, and never explicitly synced. */
+    NONE,
+    /**
+     * Files are staged until {@link #commit()}, which syncs them, renames them into place, and
+     * syncs their directories.
+     */
+    GROUP_COMMIT
+  }
+
+  /**
+   * Windows can't open a directory to sync it. Its file systems make renames and directory
+   * creation durable themselves.
+   */
+  private static final boolean CAN_SYNC_DIRECTORIES =
+      !System.getProperty("os.name", "").startsWith("Windows");
+
+  private final Path directory;
+  private final Durability durability;
+  private final List<Path> stagedFiles = new ArrayList<>();
+  private final List<Path> stagedTargets = new ArrayList<>();
+  /** Directories with entries added since the last commit, which it must sync. */
+  private final Set<Path> unsyncedDirectories = new LinkedHashSet<>();
+  private boolean closed;
+
+  private AtomicSourceWriter(Path directory, Durability durability) {
+    this.directory = directory;
+    this.durability = durability;
+    if (durability == Durability.GROUP_COMMIT) {
+      // The first write creates any missing ancestors; their parents must record them.
+      for (Path path = directory.toAbsolutePath();
+          path.getParent() != null && Files.notExists(path);
+          path = path.getParent()) {
+        unsyncedDirectories.add(path.getParent());
+      }
+    }
+  }
+
+  /** Returns a writer of files under {@code directory}. */
+  public static AtomicSourceWriter open(Path directory, Durability durability) {
+    checkNotNull(directory, "directory == null");
+    checkNotNull(durability, "durability == null");
+    return new AtomicSourceWriter(directory, durability);
+  }
+
+  /**
+   * Writes {@code javaFile} as UTF-8 and returns the path it will have once committed. With
+   * {@link Durability#NONE} it is already in place when this returns.
+   */
+  public Path write(JavaFile javaFile) throws IOException {
+    checkNotNull(javaFile, "javaFile == null");
+    synchronized (this) {
+      checkState(!closed, "closed");
+    }
+    Object event = JfrEvents.beginWrite();
+    byte[] bytes = javaFile.toString().getBytes(UTF_8);
+    Path target = javaFile.outputPath(directory);
+    Path temp = writeTemp(target, bytes);
+
+    if (durability == Durability.NONE) {
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(temp);
+        throw e;
+      }
+    } else {
+      synchronized (this) {
+        if (closed) {
+          Files.deleteIfExists(temp);
+          throw new IllegalStateException("closed");
+        }
+        stagedFiles.add(temp);
+        stagedTargets.add(target);
+        // Another writer may have just created any of these, so sync them all regardless.
+        Path root = directory.toAbsolutePath();
+        for (Path path = target.toAbsolutePath().getParent(); ; path = path.getParent()) {
+          unsyncedDirectories.add(path);
+          if (path.equals(root)) break;
+        }
+      }
+    }
+    if (event != null) {
+      JfrEvents.endWrite(event, javaFile.fileName(), target.toString(), bytes.length);
+    }
+    return target;
+  }
+
+  /** Writes {@code bytes} to a new hidden file in the same directory as {@code target}. */
+  private static Path writeTemp(Path target, byte[] bytes) throws IOException {
+    while (true) {
+      Path temp = target.resolveSibling("." + target.getFileName() + "."
+          + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      OutputStream out;
+      try {
+        out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW);
+      } catch (FileAlreadyExistsException e) {
+        continue;
+      }
+      try (OutputStream closing = out) {
+        closing.write(bytes);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(temp);
+        throw e;
+      }
+      return temp;
+    }
+  }
+
+  /**
+   * Makes every staged file durable and moves it into place. Staged files are synced first, then
+   * renamed. Then each directory they were renamed into is synced once, as is each of its
+   * ancestors up to the output directory, so package directories created for them are durable
+   * too. Does nothing with {@link Durability#NONE}.
+   *
+   * <p>If this fails, files that weren't yet renamed stay staged, and they and any unsynced
+   * directories are retried by the next commit.
+   */
+  public synchronized void commit() throws IOException {
+    for (Path file : stagedFiles) {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+    }
+
+    int renamed = 0;
+    try {
+      for (; renamed < stagedFiles.size(); renamed++) {
+        Files.move(stagedFiles.get(renamed), stagedTargets.get(renamed),
+            StandardCopyOption.ATOMIC_MOVE);
+      }
+    } finally {
+      stagedFiles.subList(0, renamed).clear();
+      stagedTargets.subList(0, renamed).clear();
+    }
+
+    if (CAN_SYNC_DIRECTORIES) {
+      for (Path directory : unsyncedDirectories) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+          channel.force(true);
+        }
+      }
+    }
+    unsyncedDirectories.clear();
+  }
+
+  /** Returns the directories the next commit will sync. */
+  synchronized Set<Path> unsyncedDirectories() {
+    return new LinkedHashSet<>(unsyncedDirectories);
+  }
+
+  /** Commits any staged files. Writing after closing fails. */
+  @Override public synchronized void close() throws IOException {
+    if (closed) return;
+    closed = true;
+    commit();
+  }
+}
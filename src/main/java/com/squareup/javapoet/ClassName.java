@@ -21,7 +21,7 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.SimpleElementVisitor8;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +37,9 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
   /** The name representing the default Java package. */
   private static final String NO_PACKAGE = "";
 
+  /** True if factory methods return interned instances. */
+  private static volatile boolean interning;
+
   /** The package name of this class, or "" if this is in the default package. */
   final String packageName;
 
@@ -46,10 +49,23 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
   /** This class name, like "Entry" for java.util.Map.Entry. */
   final String simpleName;
 
+  /** The outermost class enclosing this one, or this if it is not enclosed. */
+  private final ClassName topLevelClassName;
+
+  /** The number of classes enclosing this one. */
+  private final int depth;
+
+  /**
+   * Lazily-initialized. The list is only reached through the final fields of its unmodifiable
+   * wrapper, so another thread that reads this field also sees the list's contents.
+   */
   private List<String> simpleNames;
 
-  /** The full class name like "java.util.Map.Entry". */
-  final String canonicalName;
+  /** Lazily-initialized full class name like "java.util.Map.Entry". */
+  private String canonicalName;
+
+  /** Lazily-initialized binary name like "java.util.Map$Entry". */
+  private String reflectionName;
 
   private ClassName(String packageName, ClassName enclosingClassName, String simpleName) {
     this(packageName, enclosingClassName, simpleName, Collections.emptyList());
@@ -61,9 +77,66 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
     this.packageName = Objects.requireNonNull(packageName, "packageName == null");
     this.enclosingClassName = enclosingClassName;
     this.simpleName = simpleName;
-    this.canonicalName = enclosingClassName != null
-        ? (enclosingClassName.canonicalName + '.' + simpleName)
-        : (packageName.isEmpty() ? simpleName : packageName + '.' + simpleName);
+    this.topLevelClassName = enclosingClassName != null
+        ? enclosingClassName.topLevelClassName
+        : this;
+    this.depth = enclosingClassName != null ? enclosingClassName.depth + 1 : 0;
+  }
+
+  /** Creates a class name, interning it if that's enabled. */
+  private static ClassName create(String packageName, ClassName enclosingClassName,
+      String simpleName) {
+    ClassName className = new ClassName(packageName, enclosingClassName, simpleName);
+    return interning ? ClassNameInterner.INSTANCE.intern(className) : className;
+  }
+
+  /**
+   * Returns a canonical instance equal to this class name. Equal unannotated class names intern
+   * to the same instance for as long as it is reachable, so generators that create the same names
+   * repeatedly retain only one copy of each. Annotated class names are returned unchanged.
+   */
+  public ClassName intern() {
+    return ClassNameInterner.INSTANCE.intern(this);
+  }
+
+  /**
+   * Call this to make the {@code get}, {@link #bestGuess}, {@link #nestedClass} and {@link
+   * #peerClass} factory methods return {@linkplain #intern() interned} instances. Interning is
+   * disabled by default, as it costs a table lookup per name created.
+   */
+  public static void setInterning(boolean enabled) {
+    interning = enabled;
+  }
+
+  /** Returns statistics about the class names interned so far. */
+  public static InternStatistics internStatistics() {
+    return ClassNameInterner.INSTANCE.statistics();
+  }
+
+  /** A snapshot of the effectiveness of {@linkplain #intern() interning}. */
+  public static final class InternStatistics {
+    /** The number of distinct class names currently interned. */
+    public final int size;
+    /** The number of class names that were interned. */
+    public final long requestCount;
+    /** The number of interned class names that were replaced by an existing equal instance. */
+    public final long hitCount;
+    /** An estimate of the memory released by replacing duplicates, in bytes. */
+    public final long estimatedBytesSaved;
+
+    InternStatistics(int size, long requestCount, long hitCount, long estimatedBytesSaved) {
+      this.size = size;
+      this.requestCount = requestCount;
+      this.hitCount = hitCount;
+      this.estimatedBytesSaved = estimatedBytesSaved;
+    }
+
+    @Override public String toString() {
+      return "InternStatistics{size=" + size
+          + ", requests=" + requestCount
+          + ", hits=" + hitCount
+          + ", estimatedBytesSaved=" + estimatedBytesSaved + "}";
+    }
   }
 
   @Override public ClassName annotated(List<AnnotationSpec> annotations) {
@@ -104,30 +177,49 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
    * #enclosingClassName()} until the result's enclosing class is null.
    */
   public ClassName topLevelClassName() {
-    return enclosingClassName != null ? enclosingClassName.topLevelClassName() : this;
+    return topLevelClassName;
   }
 
   /** Return the binary name of a class. */
   public String reflectionName() {
-    return enclosingClassName != null
-        ? (enclosingClassName.reflectionName() + '$' + simpleName)
-        : (packageName.isEmpty() ? simpleName : packageName + '.' + simpleName);
+    String result = reflectionName;
+    if (result == null) {
+      result = qualifiedName('$');
+      reflectionName = result;
+    }
+    return result;
   }
 
-  public List<String> simpleNames() {
-    if (simpleNames != null) {
-      return simpleNames;
+  /**
+   * Returns the package name followed by the simple names of this class and its enclosing classes,
+   * outermost first, with {@code separator} between simple names.
+   */
+  private String qualifiedName(char separator) {
+    if (enclosingClassName == null) {
+      return packageName.isEmpty() ? simpleName : packageName + '.' + simpleName;
     }
+    StringBuilder result = new StringBuilder(topLevelClassName.canonicalName());
+    for (String name : simpleNames().subList(1, depth + 1)) {
+      result.append(separator).append(name);
+    }
+    return result.toString();
+  }
 
-    if (enclosingClassName == null) {
-      simpleNames = Collections.singletonList(simpleName);
-    } else {
-      List<String> mutableNames = new ArrayList<>();
-      mutableNames.addAll(enclosingClassName().simpleNames());
-      mutableNames.add(simpleName);
-      simpleNames = Collections.unmodifiableList(mutableNames);
+  public List<String> simpleNames() {
+    List<String> result = simpleNames;
+    if (result == null) {
+      if (enclosingClassName == null) {
+        result = Collections.singletonList(simpleName);
+      } else {
+        String[] names = new String[depth + 1];
+        for (ClassName c = this; c != null; c = c.enclosingClassName) {
+          names[c.depth] = c.simpleName;
+        }
+        result = Collections.unmodifiableList(Arrays.asList(names));
+      }
+      simpleNames = result;
     }
-    return simpleNames;
+    return result;
   }
 
   /**
@@ -136,7 +228,7 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
    * it is equivalent to {@code get(packageName(), name)}.
    */
   public ClassName peerClass(String name) {
-    return new ClassName(packageName, enclosingClassName, name);
+    return create(packageName, enclosingClassName, name);
   }
 
   /**
@@ -144,7 +236,7 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
    * class.
    */
   public ClassName nestedClass(String name) {
-    return new ClassName(packageName, this, name);
+    return create(packageName, this, name);
   }
 
   /** Returns the simple name of this class, like {@code "Entry"} for {@link Map.Entry}. */
@@ -157,7 +249,12 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
    * Like {@code "java.util.Map.Entry"} for {@link Map.Entry}.
    * */
   public String canonicalName() {
-    return canonicalName;
+    String result = canonicalName;
+    if (result == null) {
+      result = qualifiedName('.');
+      canonicalName = result;
+    }
+    return result;
   }
 
   public static ClassName get(Class<?> clazz) {
@@ -178,7 +275,7 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
       // Avoid unreliable Class.getPackage(). https://github.com/square/javapoet/issues/295
       int lastDot = clazz.getName().lastIndexOf('.');
       String packageName = (lastDot != -1) ? clazz.getName().substring(0, lastDot) : NO_PACKAGE;
-      return new ClassName(packageName, null, name);
+      return create(packageName, null, name);
     }
 
     return ClassName.get(clazz.getEnclosingClass()).nestedClass(name);
@@ -206,7 +303,7 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
     for (String simpleName : classNameString.substring(p).split("\\.", -1)) {
       checkArgument(!simpleName.isEmpty() && Character.isUpperCase(simpleName.codePointAt(0)),
           "couldn't make a guess for %s", classNameString);
-      className = new ClassName(packageName, className, simpleName);
+      className = create(packageName, className, simpleName);
     }
 
     return className;
@@ -217,7 +314,7 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
    * {@code "java.util"} and simple names {@code "Map"}, {@code "Entry"} yields {@link Map.Entry}.
    */
   public static ClassName get(String packageName, String simpleName, String... simpleNames) {
-    ClassName className = new ClassName(packageName, null, simpleName);
+    ClassName className = create(packageName, null, simpleName);
     for (String name : simpleNames) {
       className = className.nestedClass(name);
     }
@@ -231,7 +328,7 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
 
     return element.getEnclosingElement().accept(new SimpleElementVisitor8<ClassName, Void>() {
       @Override public ClassName visitPackage(PackageElement packageElement, Void p) {
-        return new ClassName(packageElement.getQualifiedName().toString(), null, simpleName);
+        return create(packageElement.getQualifiedName().toString(), null, simpleName);
       }
 
       @Override public ClassName visitType(TypeElement enclosingClass, Void p) {
@@ -249,54 +346,49 @@ public final class ClassName extends TypeName implements Comparable<ClassName> {
   }
 
   @Override public int compareTo(ClassName o) {
-    return canonicalName.compareTo(o.canonicalName);
+    return canonicalName().compareTo(o.canonicalName());
   }
 
   @Override CodeWriter emit(CodeWriter out) throws IOException {
-    boolean charsEmitted = false;
-    for (ClassName className : enclosingClasses()) {
-      String simpleName;
-      if (charsEmitted) {
-        // We've already emitted an enclosing class. Emit as we go.
-        out.emit(".");
-        simpleName = className.simpleName;
-
-      } else if (className.isAnnotated() || className == this) {
-        // We encountered the first enclosing class that must be emitted.
-        String qualifiedName = out.lookupName(className);
-        int dot = qualifiedName.lastIndexOf('.');
-        if (dot != -1) {
-          out.emitAndIndent(qualifiedName.substring(0, dot + 1));
-          simpleName = qualifiedName.substring(dot + 1);
-          charsEmitted = true;
-        } else {
-          simpleName = qualifiedName;
-        }
+    emit(out, this);
+    return out;
+  }
 
+  /**
+   * Emits this class and its enclosing classes as part of {@code target}'s name, outermost first.
+   * Returns true if any characters were emitted.
+   */
+  private boolean emit(CodeWriter out, ClassName target) throws IOException {
+    boolean charsEmitted = enclosingClassName != null && enclosingClassName.emit(out, target);
+    String simpleName;
+    if (charsEmitted) {
+      // We've already emitted an enclosing class. Emit as we go.
+      out.emit(".");
+      simpleName = this.simpleName;
+
+    } else if (isAnnotated() || this == target) {
+      // We encountered the first enclosing class that must be emitted.
+      String qualifiedName = out.lookupName(this);
+      int dot = qualifiedName.lastIndexOf('.');
+      if (dot != -1) {
+        out.emitAndIndent(qualifiedName.substring(0, dot + 1));
+        simpleName = qualifiedName.substring(dot + 1);
+        charsEmitted = true;
       } else {
-        // Don't emit this enclosing type. Keep going so we can be more precise.
-        continue;
-      }
-
-      if (className.isAnnotated()) {
-        if (charsEmitted) out.emit(" ");
-        className.emitAnnotations(out);
+        simpleName = qualifiedName;
       }
 
-      out.emit(simpleName);
-      charsEmitted = true;
+    } else {
+      // Don't emit this enclosing type. Keep going so we can be more precise.
+      return false;
     }
 
-    return out;
-  }
-
-  /** Returns all enclosing classes in this, outermost first. */
-  private List<ClassName> enclosingClasses() {
-    List<ClassName> result = new ArrayList<>();
-    for (ClassName c = this; c != null; c = c.enclosingClassName) {
-      result.add(c);
+    if (isAnnotated()) {
+      if (charsEmitted) out.emit(" ");
+      emitAnnotations(out);
     }
-    Collections.reverse(result);
-    return result;
+
+    out.emit(simpleName);
+    return true;
   }
 }
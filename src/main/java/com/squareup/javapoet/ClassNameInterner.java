@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A table of canonical {@link ClassName} instances, keyed by canonical name. Instances are held
+ * weakly so interning never keeps a name alive. Reads don't lock, and concurrent interns of the
+ * same name agree on one winner through the map's atomic operations.
+ */
+final class ClassNameInterner {
+  static final ClassNameInterner INSTANCE = new ClassNameInterner();
+
+  /**
+   * Estimated bytes retained by a {@link ClassName} object itself with compressed references: a
+   * 12 byte header plus its fields, padded to 8 bytes.
+   */
+  private static final int CLASS_NAME_BYTES = 56;
+
+  private final ConcurrentMap<String, NameReference> names = new ConcurrentHashMap<>();
+  private final ReferenceQueue<ClassName> collected = new ReferenceQueue<>();
+  private final LongAdder requestCount = new LongAdder();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder bytesSaved = new LongAdder();
+
+  private ClassNameInterner() {
+  }
+
+  ClassName intern(ClassName className) {
+    if (className.isAnnotated()) return className;
+    requestCount.increment();
+    expunge();
+
+    String key = className.canonicalName();
+    NameReference candidate = null;
+    while (true) {
+      NameReference reference = names.get(key);
+      ClassName existing = reference != null ? reference.get() : null;
+      if (existing != null) {
+        if (existing == className) return className;
+        // Different classes can share a canonical name, like a.b.C and class b's member C in a.
+        if (!existing.packageName.equals(className.packageName)) return className;
+        hitCount.increment();
+        bytesSaved.add(estimatedBytes(className));
+        return existing;
+      }
+
+      if (candidate == null) candidate = new NameReference(className, collected);
+      boolean installed = reference == null
+          ? names.putIfAbsent(key, candidate) == null
+          : names.replace(key, reference, candidate);
+      if (installed) return className;
+    }
+  }
+
+  ClassName.InternStatistics statistics() {
+    expunge();
+    return new ClassName.InternStatistics(
+        names.size(), requestCount.sum(), hitCount.sum(), bytesSaved.sum());
+  }
+
+  private void expunge() {
+    for (Reference<? extends ClassName> reference; (reference = collected.poll()) != null; ) {
+      NameReference nameReference = (NameReference) reference;
+      names.remove(nameReference.key, nameReference);
+    }
+  }
+
+  /** Estimates the bytes a duplicate releases: the object and its canonical name string. */
+  private static long estimatedBytes(ClassName className) {
+    long bytes = CLASS_NAME_BYTES;
+    if (className.canonicalName() != className.simpleName) {
+      // A String object plus its Latin-1 byte array, each padded to 8 bytes.
+      bytes += 24 + ((16 + className.canonicalName().length() + 7) & ~7);
+    }
+    return bytes;
+  }
+
+  private static final class NameReference extends WeakReference<ClassName> {
+    final String key;
+
+    NameReference(ClassName className, ReferenceQueue<ClassName> queue) {
+      super(className, queue);
+      this.key = className.canonicalName();
+    }
+  }
+}
@@ -20,7 +20,10 @@ import javax.lang.model.type.TypeMirror;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -68,7 +71,17 @@ public final class CodeBlock {
       Pattern.compile("\\$(?<argumentName>[\\w_]+):(?<typeChar>[\\w]).*");
   private static final Pattern LOWERCASE = Pattern.compile("[a-z]+[\\w_]*");
 
-  /** A heterogeneous list containing string literals and value placeholders. */
+  /**
+   * A format part whose argument is a non-empty child code block. Children are rendered in place,
+   * as if their format parts and arguments had been copied into the parent. Users can't create
+   * this part because {@code $B} isn't a valid placeholder.
+   */
+  static final String CHILD = "$B";
+
+  /** Children with at most this many format parts are copied rather than referenced. */
+  private static final int MAX_COPIED_CHILD_PARTS = 8;
+
+  /** A heterogeneous list containing string literals, value placeholders and child blocks. */
   final List<String> formatParts;
   final List<Object> args;
 
@@ -158,8 +171,8 @@ public final class CodeBlock {
   }
 
   public static final class Builder {
-    final List<String> formatParts = new ArrayList<>();
-    final List<Object> args = new ArrayList<>();
+    final List<String> formatParts = new PersistentVector.MutableList<>();
+    final List<Object> args = new PersistentVector.MutableList<>();
 
     private Builder() {
     }
@@ -237,6 +250,15 @@ public final class CodeBlock {
      * error.
      */
     public Builder add(String format, Object... args) {
+      Object event = JfrEvents.beginParse();
+      parse(format, args);
+      if (event != null) {
+        JfrEvents.endParse(event, format, args.length);
+      }
+      return this;
+    }
+
+    private void parse(String format, Object[] args) {
       boolean hasRelative = false;
       boolean hasIndexed = false;
 
@@ -309,7 +331,6 @@ public final class CodeBlock {
         String s = unused.size() == 1 ? "" : "s";
         checkArgument(unused.isEmpty(), "unused argument%s: %s", s, String.join(", ", unused));
       }
-      return this;
     }
 
     private boolean isNoArgPlaceholder(char c) {
@@ -410,8 +431,14 @@ public final class CodeBlock {
     }
 
     public Builder add(CodeBlock codeBlock) {
-      formatParts.addAll(codeBlock.formatParts);
-      args.addAll(codeBlock.args);
+      if (formatParts.isEmpty() || codeBlock.formatParts.size() <= MAX_COPIED_CHILD_PARTS) {
+        formatParts.addAll(codeBlock.formatParts);
+        args.addAll(codeBlock.args);
+      } else {
+        // Reference big blocks so that nesting them doesn't copy them once per level.
+        formatParts.add(CHILD);
+        args.add(codeBlock);
+      }
       return this;
     }
 
@@ -436,6 +463,80 @@ public final class CodeBlock {
     }
   }
 
+  /**
+   * Iterates over the format parts of a code block and its children in rendering order, without
+   * flattening them.
+   */
+  static final class PartCursor {
+    private CodeBlock block;
+    private int partIndex = -1;
+    private int argIndex = 0;
+
+    /** The positions to resume at in enclosing blocks, innermost first. */
+    private Deque<PartCursor> parents;
+
+    PartCursor(CodeBlock block) {
+      this.block = block;
+    }
+
+    /** Advances to the next part, returning it or null if there are no more parts. */
+    String next() {
+      while (true) {
+        if (++partIndex < block.formatParts.size()) {
+          String part = block.formatParts.get(partIndex);
+          if (!part.equals(CHILD)) return part;
+          PartCursor parent = new PartCursor(block);
+          parent.partIndex = partIndex;
+          parent.argIndex = argIndex + 1;
+          if (parents == null) parents = new ArrayDeque<>();
+          parents.push(parent);
+          block = (CodeBlock) block.args.get(argIndex);
+          partIndex = -1;
+          argIndex = 0;
+        } else if (parents != null && !parents.isEmpty()) {
+          PartCursor parent = parents.pop();
+          block = parent.block;
+          partIndex = parent.partIndex;
+          argIndex = parent.argIndex;
+        } else {
+          return null;
+        }
+      }
+    }
+
+    /** Returns the argument of the current part. */
+    Object arg() {
+      return block.args.get(argIndex++);
+    }
+
+    /**
+     * Returns the part after the current one without advancing, or null if the current part is
+     * the last. Must only be called after the current part's argument, if any, was consumed.
+     */
+    String peek() {
+      CodeBlock peekBlock = block;
+      int peekPart = partIndex + 1;
+      int peekArg = argIndex;
+      Iterator<PartCursor> enclosing = parents != null ? parents.iterator() : null;
+      while (true) {
+        if (peekPart < peekBlock.formatParts.size()) {
+          String part = peekBlock.formatParts.get(peekPart);
+          if (!part.equals(CHILD)) return part;
+          peekBlock = (CodeBlock) peekBlock.args.get(peekArg); // Children are never empty.
+          peekPart = 0;
+          peekArg = 0;
+        } else if (enclosing != null && enclosing.hasNext()) {
+          PartCursor parent = enclosing.next();
+          peekBlock = parent.block;
+          peekPart = parent.partIndex + 1;
+          peekArg = parent.argIndex;
+        } else {
+          return null;
+        }
+      }
+    }
+  }
+
   private static final class CodeBlockJoiner {
     private final String delimiter;
     private final Builder builder;
@@ -24,22 +24,27 @@ import javax.lang.model.element.Modifier;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Pattern;
 
+import static com.squareup.javapoet.Util.MAX_STRING_CONSTANT_LENGTH;
 import static com.squareup.javapoet.Util.checkArgument;
 import static com.squareup.javapoet.Util.checkNotNull;
 import static com.squareup.javapoet.Util.checkState;
+import static com.squareup.javapoet.Util.constantPoolChunks;
+import static com.squareup.javapoet.Util.modifiedUtf8Length;
 import static com.squareup.javapoet.Util.stringLiteralWithDoubleQuotes;
+import static com.squareup.javapoet.Util.textBlockWithTripleQuotes;
 import static java.lang.String.join;
 
 /**
@@ -50,6 +55,16 @@ final class CodeWriter {
   /** Sentinel value that indicates that no user-provided package has been set. */
   private static final String NO_PACKAGE = new String();
   private static final Pattern LINE_BREAKING_PATTERN = Pattern.compile("\\R");
+  private static final Modifier[] MODIFIERS = Modifier.values();
+
+  /**
+   * Space-terminated modifier keywords like {@code "public static "}, in an open-addressed table
+   * keyed by a bit mask of modifier ordinals. Entries are only ever added; a mask that finds no
+   * free slot within {@link #MODIFIER_PROBES} probes is rendered without being cached.
+   */
+  private static final AtomicReferenceArray<ModifierString> MODIFIER_STRINGS =
+      new AtomicReferenceArray<>(64);
+  private static final int MODIFIER_PROBES = 8;
 
   private final String indent;
   private final LineWrapper out;
@@ -59,15 +74,42 @@ final class CodeWriter {
   private boolean comment = false;
   private String packageName = NO_PACKAGE;
   private final List<TypeSpec> typeSpecStack = new ArrayList<>();
+  /** Stack depths of types whose header is being emitted; their nested types aren't in scope. */
+  private final BitSet typeHeaders = new BitSet();
   private final Set<String> staticImportClassNames;
   private final Set<String> staticImports;
   private final Set<String> alwaysQualify;
   private final Map<String, ClassName> importedTypes;
+  private final boolean textBlocks;
   private final Map<String, ClassName> importableTypes = new LinkedHashMap<>();
   private final Set<String> referencedNames = new LinkedHashSet<>();
   private final Multiset<String> currentTypeVariables = new Multiset<>();
+
+  /**
+   * The innermost class in scope for each simple name: the nested classes of every type on the
+   * stack, and the top-level class. Updated as types are pushed and popped.
+   */
+  private final Map<String, ScopeEntry> scopeIndex = new HashMap<>();
+
+  /** Names found by {@link #lookupName}, keyed by canonical name. */
+  private Map<String, LookupResult> lookupCache = new HashMap<>();
   private boolean trailingNewline;
 
+  /** Non-null if members are served from and stored in a {@link RenderCache}. */
+  private RenderCache.Context renderContext;
+  private RenderCache.Scope renderScope;
+  private int recordingDepth;
+  private StringBuilder recordedText;
+  private List<Object> recordedEvents;
+
+  /** Non-null if member render times are reported. */
+  private RenderListener renderListener;
+  private JavaFile renderFile;
+  private RenderListener.Pass renderPass;
+  private int typeLookupCount;
+  /** Line wraps in the source of members copied from the render cache. */
+  private int cachedLineWrapCount;
+
   /**
    * When emitting a statement, this is the line of the statement currently being written. The first
    * line of a statement is indented normally and subsequent wrapped lines are double-indented. This
@@ -88,17 +130,39 @@ final class CodeWriter {
       Map<String, ClassName> importedTypes,
       Set<String> staticImports,
       Set<String> alwaysQualify) {
+    this(out, indent, importedTypes, staticImports, alwaysQualify, false);
+  }
+
+  CodeWriter(Appendable out,
+      String indent,
+      Map<String, ClassName> importedTypes,
+      Set<String> staticImports,
+      Set<String> alwaysQualify,
+      boolean textBlocks) {
     this.out = new LineWrapper(out, indent, 100);
     this.indent = checkNotNull(indent, "indent == null");
     this.importedTypes = checkNotNull(importedTypes, "importedTypes == null");
     this.staticImports = checkNotNull(staticImports, "staticImports == null");
     this.alwaysQualify = checkNotNull(alwaysQualify, "alwaysQualify == null");
+    this.textBlocks = textBlocks;
     this.staticImportClassNames = new LinkedHashSet<>();
     for (String signature : staticImports) {
       staticImportClassNames.add(signature.substring(0, signature.lastIndexOf('.')));
     }
   }
 
+  /** Serve members from {@code context}'s cache, and cache members that miss. */
+  void renderCache(RenderCache.Context context) {
+    this.renderContext = context;
+  }
+
+  /** Reports the render time of each member to {@code listener}. */
+  void renderListener(RenderListener listener, JavaFile file, RenderListener.Pass pass) {
+    this.renderListener = listener;
+    this.renderFile = file;
+    this.renderPass = pass;
+  }
+
   public Map<String, ClassName> importedTypes() {
     return importedTypes;
   }
@@ -125,25 +189,136 @@ final class CodeWriter {
   public CodeWriter pushPackage(String packageName) {
     checkState(this.packageName == NO_PACKAGE, "package already set: %s", this.packageName);
     this.packageName = checkNotNull(packageName, "packageName == null");
+    invalidateLookupCache();
     return this;
   }
 
   public CodeWriter popPackage() {
     checkState(this.packageName != NO_PACKAGE, "package not set");
     this.packageName = NO_PACKAGE;
+    invalidateLookupCache();
     return this;
   }
 
   public CodeWriter pushType(TypeSpec type) {
+    return pushType(type, type.nestedTypesSimpleNames);
+  }
+
+  /**
+   * Enters the declaration header of {@code type}, up to but excluding its body. The type's own
+   * name is in scope but its nested types are not. Leave with {@link #popType}.
+   */
+  CodeWriter pushTypeHeader(TypeSpec type) {
+    typeHeaders.set(typeSpecStack.size());
+    return pushType(type, Collections.emptySet());
+  }
+
+  private CodeWriter pushType(TypeSpec type, Set<String> nestedTypesSimpleNames) {
+    int depth = typeSpecStack.size();
     this.typeSpecStack.add(type);
+    if (depth == 0 && type.name != null) {
+      pushScopeEntry(new ScopeEntry(-1, type.name));
+    }
+    for (String nestedName : nestedTypesSimpleNames) {
+      pushScopeEntry(new ScopeEntry(depth, nestedName));
+    }
+    invalidateLookupCache();
+    if (renderContext != null) {
+      renderScope = new RenderCache.Scope(renderScope, type.kind, type.name,
+          nestedTypesSimpleNames, currentTypeVariables.elements(), indentLevel);
+    }
     return this;
   }
 
   public CodeWriter popType() {
-    this.typeSpecStack.remove(typeSpecStack.size() - 1);
+    int depth = typeSpecStack.size() - 1;
+    TypeSpec type = this.typeSpecStack.remove(depth);
+    if (typeHeaders.get(depth)) {
+      typeHeaders.clear(depth);
+    } else {
+      for (String nestedName : type.nestedTypesSimpleNames) {
+        popScopeEntry(nestedName);
+      }
+    }
+    if (typeSpecStack.isEmpty() && type.name != null) {
+      popScopeEntry(type.name);
+    }
+    invalidateLookupCache();
+    if (renderContext != null) {
+      renderScope = renderScope.parent;
+    }
     return this;
   }
 
+  /** Emits a member of a type. */
+  interface MemberEmitter {
+    void emit() throws IOException;
+  }
+
+  /**
+   * Emits {@code member} of the current type using {@code emitter}, or copies it from the render
+   * cache if it was emitted in the same context before. The member must start on a new line and
+   * end with a newline.
+   */
+  void emitMember(Object member, MemberEmitter emitter) throws IOException {
+    if (renderListener == null) {
+      emitMemberCached(member, emitter);
+      return;
+    }
+    long start = System.nanoTime();
+    emitMemberCached(member, emitter);
+    renderListener.memberRendered(renderFile, renderPass, member, System.nanoTime() - start);
+  }
+
+  private void emitMemberCached(Object member, MemberEmitter emitter) throws IOException {
+    if (renderContext == null || renderScope == null || !trailingNewline || !out.isFlushed()
+        || statementLine != -1 || javadoc || comment) {
+      emitter.emit();
+      return;
+    }
+
+    RenderCache.Fragment fragment = renderContext.cache.get(renderContext, member, renderScope);
+    if (fragment != null) {
+      out.append(fragment.text);
+      typeLookupCount += fragment.typeLookupCount;
+      cachedLineWrapCount += fragment.lineWrapCount;
+      for (Object event : fragment.events) {
+        if (event instanceof ClassName) {
+          importableType((ClassName) event);
+        } else {
+          referencedName((String) event);
+        }
+      }
+      return;
+    }
+
+    // Nested members are recorded too; each records a suffix of the outermost recording.
+    if (recordingDepth++ == 0) {
+      recordedText = new StringBuilder();
+      recordedEvents = new ArrayList<>();
+      out.capture(recordedText);
+    }
+    int textStart = recordedText.length();
+    int eventsStart = recordedEvents.size();
+    int typeLookupsStart = typeLookupCount;
+    int lineWrapsStart = lineWrapCount();
+    try {
+      emitter.emit();
+      if (trailingNewline && out.isFlushed()) {
+        renderContext.cache.put(renderContext, member, renderScope,
+            recordedText.substring(textStart),
+            recordedEvents.subList(eventsStart, recordedEvents.size()),
+            typeLookupCount - typeLookupsStart, lineWrapCount() - lineWrapsStart);
+      }
+    } finally {
+      if (--recordingDepth == 0) {
+        out.capture(null);
+        recordedText = null;
+        recordedEvents = null;
+      }
+    }
+  }
+
   public void emitComment(CodeBlock codeBlock) throws IOException {
     trailingNewline = true; // Force the '//' prefix for the comment.
     comment = true;
@@ -182,11 +357,40 @@ final class CodeWriter {
   public void emitModifiers(Set<Modifier> modifiers, Set<Modifier> implicitModifiers)
       throws IOException {
     if (modifiers.isEmpty()) return;
-    for (Modifier modifier : EnumSet.copyOf(modifiers)) {
-      if (implicitModifiers.contains(modifier)) continue;
-      emitAndIndent(modifier.toString().toLowerCase(Locale.US));
-      emitAndIndent(" ");
+    long mask = 0;
+    for (Modifier modifier : modifiers) {
+      if (!implicitModifiers.contains(modifier)) mask |= 1L << modifier.ordinal();
+    }
+    if (mask == 0) return;
+    emitAndIndent(modifierString(mask));
+  }
+
+  /** Returns the cached keywords of the modifiers in {@code mask}, computing them on a miss. */
+  private static String modifierString(long mask) {
+    int slots = MODIFIER_STRINGS.length();
+    int index = (int) ((mask * 0x9E3779B97F4A7C15L) >>> 32) & (slots - 1);
+    ModifierString created = null;
+    for (int probe = 0; probe < MODIFIER_PROBES; probe++, index = (index + 1) & (slots - 1)) {
+      ModifierString entry = MODIFIER_STRINGS.get(index);
+      if (entry == null) {
+        if (created == null) created = new ModifierString(mask, keywords(mask));
+        if (MODIFIER_STRINGS.compareAndSet(index, null, created)) return created.keywords;
+        entry = MODIFIER_STRINGS.get(index);
+      }
+      if (entry.mask == mask) return entry.keywords;
     }
+    return created != null ? created.keywords : keywords(mask);
+  }
+
+  /** Returns the keywords of the modifiers in {@code mask}, in declaration order. */
+  private static String keywords(long mask) {
+    StringBuilder result = new StringBuilder();
+    for (Modifier modifier : MODIFIERS) {
+      if ((mask & (1L << modifier.ordinal())) != 0) {
+        result.append(modifier.toString().toLowerCase(Locale.US)).append(' ');
+      }
+    }
+    return result.toString();
   }
 
   public void emitModifiers(Set<Modifier> modifiers) throws IOException {
@@ -201,6 +405,7 @@ final class CodeWriter {
     if (typeVariables.isEmpty()) return;
 
     typeVariables.forEach(typeVariable -> currentTypeVariables.add(typeVariable.name));
+    invalidateLookupCache();
 
     emit("<");
     boolean firstTypeVariable = true;
@@ -219,7 +424,9 @@ final class CodeWriter {
   }
 
   public void popTypeVariables(List<TypeVariableName> typeVariables) throws IOException {
+    if (typeVariables.isEmpty()) return;
     typeVariables.forEach(typeVariable -> currentTypeVariables.remove(typeVariable.name));
+    invalidateLookupCache();
   }
 
   public CodeWriter emit(String s) throws IOException {
@@ -235,35 +442,36 @@ final class CodeWriter {
   }
 
   public CodeWriter emit(CodeBlock codeBlock, boolean ensureTrailingNewline) throws IOException {
-    int a = 0;
     ClassName deferredTypeName = null; // used by "import static" logic
-    ListIterator<String> partIterator = codeBlock.formatParts.listIterator();
-    while (partIterator.hasNext()) {
-      String part = partIterator.next();
+    CodeBlock.PartCursor parts = new CodeBlock.PartCursor(codeBlock);
+    for (String part; (part = parts.next()) != null; ) {
       switch (part) {
         case "$L":
-          emitLiteral(codeBlock.args.get(a++));
+          emitLiteral(parts.arg());
           break;
 
         case "$N":
-          emitAndIndent((String) codeBlock.args.get(a++));
+          emitAndIndent((String) parts.arg());
           break;
 
         case "$S":
-          String string = (String) codeBlock.args.get(a++);
+          String string = (String) parts.arg();
           // Emit null as a literal null: no quotes.
-          emitAndIndent(string != null
-              ? stringLiteralWithDoubleQuotes(string, indent)
-              : "null");
+          if (string != null) {
+            emitStringLiteral(string);
+          } else {
+            emitAndIndent("null");
+          }
           break;
 
         case "$T":
-          TypeName typeName = (TypeName) codeBlock.args.get(a++);
+          TypeName typeName = (TypeName) parts.arg();
           // defer "typeName.emit(this)" if next format part will be handled by the default case
-          if (typeName instanceof ClassName && partIterator.hasNext()) {
-            if (!codeBlock.formatParts.get(partIterator.nextIndex()).startsWith("$")) {
+          String nextPart = typeName instanceof ClassName ? parts.peek() : null;
+          if (nextPart != null) {
+            if (!nextPart.startsWith("$")) {
               ClassName candidate = (ClassName) typeName;
-              if (staticImportClassNames.contains(candidate.canonicalName)) {
+              if (staticImportClassNames.contains(candidate.canonicalName())) {
                 checkState(deferredTypeName == null, "pending type for static import?!");
                 deferredTypeName = candidate;
                 break;
@@ -310,7 +518,7 @@ final class CodeWriter {
           // handle deferred type
           if (deferredTypeName != null) {
             if (part.startsWith(".")) {
-              if (emitStaticImportMember(deferredTypeName.canonicalName, part)) {
+              if (emitStaticImportMember(deferredTypeName.canonicalName(), part)) {
                 // okay, static import hit and all was emitted, so clean-up and jump to next part
                 deferredTypeName = null;
                 break;
@@ -358,6 +566,33 @@ final class CodeWriter {
     return false;
   }
 
+  /**
+   * Emits {@code value} as a string literal, or as a text block if enabled and {@code value} spans
+   * multiple lines. Strings too long for a single class file constant are split into chunks and
+   * joined at runtime: javac folds {@code "a" + "b"} into one constant, so a concatenation of
+   * literals would still be rejected as "constant string too long".
+   */
+  private void emitStringLiteral(String value) throws IOException {
+    if (value.length() <= MAX_STRING_CONSTANT_LENGTH / 3
+        || modifiedUtf8Length(value) <= MAX_STRING_CONSTANT_LENGTH) {
+      emitAndIndent(useTextBlock(value)
+          ? textBlockWithTripleQuotes(value, indent)
+          : stringLiteralWithDoubleQuotes(value, indent));
+      return;
+    }
+    CodeBlock.Builder joined = CodeBlock.builder().add("$T.join(\"\"", String.class);
+    for (String chunk : constantPoolChunks(value, MAX_STRING_CONSTANT_LENGTH)) {
+      joined.add(",$W$S", chunk);
+    }
+    emit(joined.add(")").build());
+  }
+
+  private boolean useTextBlock(String value) {
+    if (!textBlocks || javadoc || comment) return false;
+    int firstNewline = value.indexOf('\n');
+    return firstNewline != -1 && firstNewline < value.length() - 1;
+  }
+
   private void emitLiteral(Object o) throws IOException {
     if (o instanceof TypeSpec) {
       TypeSpec typeSpec = (TypeSpec) o;
@@ -379,10 +614,31 @@ final class CodeWriter {
    * names visible due to inheritance.
    */
   String lookupName(ClassName className) {
+    typeLookupCount++;
+    // Names only depend on the scope, which changes rarely, so remember them until it does.
+    String canonicalName = className.canonicalName();
+    LookupResult result = lookupCache.get(canonicalName);
+    if (result == null || !result.packageName.equals(className.packageName())) {
+      result = computeLookupName(className);
+      lookupCache.put(canonicalName, result);
+    }
+
+    if (result.outcome == LookupResult.SAME_PACKAGE) {
+      referencedName(className.topLevelClassName().simpleName());
+    } else if (result.outcome == LookupResult.IMPORTABLE && !javadoc) {
+      // Mark the type as importable for a future pass.
+      importableType(className);
+    }
+    return result.name;
+  }
+
+  private LookupResult computeLookupName(ClassName className) {
+    String packageName = className.packageName();
+
     // If the top level simple name is masked by a current type variable, use the canonical name.
     String topLevelSimpleName = className.topLevelClassName().simpleName();
     if (currentTypeVariables.contains(topLevelSimpleName)) {
-      return className.canonicalName;
+      return new LookupResult(packageName, className.canonicalName(), LookupResult.RESOLVED);
     }
 
     // Find the shortest suffix of className that resolves to className. This uses both local type
@@ -392,33 +648,50 @@ final class CodeWriter {
       ClassName resolved = resolve(c.simpleName());
       nameResolved = resolved != null;
 
-      if (resolved != null && Objects.equals(resolved.canonicalName, c.canonicalName)) {
+      if (resolved != null && Objects.equals(resolved.canonicalName(), c.canonicalName())) {
         int suffixOffset = c.simpleNames().size() - 1;
-        return join(".", className.simpleNames().subList(
+        String name = join(".", className.simpleNames().subList(
             suffixOffset, className.simpleNames().size()));
+        return new LookupResult(packageName, name, LookupResult.RESOLVED);
       }
     }
 
     // If the name resolved but wasn't a match, we're stuck with the fully qualified name.
     if (nameResolved) {
-      return className.canonicalName;
+      return new LookupResult(packageName, className.canonicalName(), LookupResult.RESOLVED);
     }
 
     // If the class is in the same package, we're done.
-    if (Objects.equals(packageName, className.packageName())) {
-      referencedNames.add(topLevelSimpleName);
-      return join(".", className.simpleNames());
+    if (Objects.equals(this.packageName, packageName)) {
+      String name = join(".", className.simpleNames());
+      return new LookupResult(packageName, name, LookupResult.SAME_PACKAGE);
     }
 
-    // We'll have to use the fully-qualified name. Mark the type as importable for a future pass.
-    if (!javadoc) {
-      importableType(className);
+    // We'll have to use the fully-qualified name.
+    return new LookupResult(packageName, className.canonicalName(), LookupResult.IMPORTABLE);
+  }
+
+  /**
+   * Forgets all looked up names. Call this whenever anything {@link #computeLookupName} depends on
+   * changes: the package, the type stack or the type variables.
+   */
+  private void invalidateLookupCache() {
+    if (!lookupCache.isEmpty()) {
+      lookupCache = new HashMap<>();
     }
+  }
 
-    return className.canonicalName;
+  private void referencedName(String simpleName) {
+    if (recordedEvents != null) {
+      recordedEvents.add(simpleName);
+    }
+    referencedNames.add(simpleName);
   }
 
   private void importableType(ClassName className) {
+    if (recordedEvents != null) {
+      recordedEvents.add(className);
+    }
     if (className.packageName().isEmpty()) {
       return;
     } else if (alwaysQualify.contains(className.simpleName)) {
@@ -439,17 +712,15 @@ final class CodeWriter {
    */
   // TODO(jwilson): also honor superclass members when resolving names.
   private ClassName resolve(String simpleName) {
-    // Match a child of the current (potentially nested) class.
-    for (int i = typeSpecStack.size() - 1; i >= 0; i--) {
-      TypeSpec typeSpec = typeSpecStack.get(i);
-      if (typeSpec.nestedTypesSimpleNames.contains(simpleName)) {
-        return stackClassName(i, simpleName);
+    // Match a child of the current (potentially nested) class, or the top-level class.
+    ScopeEntry scopeEntry = scopeIndex.get(simpleName);
+    if (scopeEntry != null) {
+      if (scopeEntry.className == null) {
+        scopeEntry.className = scopeEntry.stackDepth == -1
+            ? ClassName.get(packageName, simpleName)
+            : stackClassName(scopeEntry.stackDepth, simpleName);
       }
-    }
-
-    // Match the top-level class.
-    if (typeSpecStack.size() > 0 && Objects.equals(typeSpecStack.get(0).name, simpleName)) {
-      return ClassName.get(packageName, simpleName);
+      return scopeEntry.className;
     }
 
     // Match an imported type.
@@ -460,6 +731,17 @@ final class CodeWriter {
     return null;
   }
 
+  private void pushScopeEntry(ScopeEntry scopeEntry) {
+    scopeEntry.shadowed = scopeIndex.put(scopeEntry.simpleName, scopeEntry);
+  }
+
+  private void popScopeEntry(String simpleName) {
+    ScopeEntry scopeEntry = scopeIndex.remove(simpleName);
+    if (scopeEntry.shadowed != null) {
+      scopeIndex.put(simpleName, scopeEntry.shadowed);
+    }
+  }
+
   /** Returns the class named {@code simpleName} when nested in the class at {@code stackDepth}. */
   private ClassName stackClassName(int stackDepth, String simpleName) {
     ClassName className = ClassName.get(packageName, typeSpecStack.get(0).name);
@@ -528,6 +810,18 @@ final class CodeWriter {
     return result;
   }
 
+  int typeLookupCount() {
+    return typeLookupCount;
+  }
+
+  int importCandidateCount() {
+    return importableTypes.size();
+  }
+
+  int lineWrapCount() {
+    return out.wrapCount() + cachedLineWrapCount;
+  }
+
   // A makeshift multi-set implementation
   private static final class Multiset<T> {
     private final Map<T, Integer> map = new LinkedHashMap<>();
@@ -548,5 +842,60 @@ final class CodeWriter {
     boolean contains(T t) {
       return map.getOrDefault(t, 0) > 0;
     }
+
+    List<T> elements() {
+      List<T> result = new ArrayList<>();
+      map.forEach((t, count) -> {
+        if (count > 0) result.add(t);
+      });
+      return result;
+    }
+  }
+
+  /** The name to emit for a class and the side effect of emitting it. */
+  private static final class LookupResult {
+    /** The name is resolved by the scope or by an import. */
+    static final int RESOLVED = 0;
+    /** The name is in the current package and masks any import of the same simple name. */
+    static final int SAME_PACKAGE = 1;
+    /** The name is fully-qualified, and could be imported. */
+    static final int IMPORTABLE = 2;
+
+    final String packageName;
+    final String name;
+    final int outcome;
+
+    LookupResult(String packageName, String name, int outcome) {
+      this.packageName = packageName;
+      this.name = name;
+      this.outcome = outcome;
+    }
+  }
+
+  /** A class in scope by its simple name. */
+  private static final class ScopeEntry {
+    /** The stack index of the type that declares this class, or -1 for the top-level class. */
+    final int stackDepth;
+    final String simpleName;
+    /** The entry for the same simple name in an enclosing scope, or null. */
+    ScopeEntry shadowed;
+    /** Lazily-initialized class name. */
+    ClassName className;
+
+    ScopeEntry(int stackDepth, String simpleName) {
+      this.stackDepth = stackDepth;
+      this.simpleName = simpleName;
+    }
+  }
+
+  /** The keywords of the modifiers in a bit mask of modifier ordinals. */
+  private static final class ModifierString {
+    final long mask;
+    final String keywords;
+
+    ModifierString(long mask, String keywords) {
+      this.mask = mask;
+      this.keywords = keywords;
+    }
   }
 }
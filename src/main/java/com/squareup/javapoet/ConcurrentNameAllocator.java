@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.lang.model.SourceVersion;
+
+import static com.squareup.javapoet.Util.checkArgument;
+import static com.squareup.javapoet.Util.checkNotNull;
+import static com.squareup.javapoet.Util.checkState;
+
+/**
+ * A {@link NameAllocator} that may be shared by threads generating members of the same class in
+ * parallel. Names are mangled exactly as {@code NameAllocator} mangles them.
+ *
+ * <p>An allocator created with {@link #ConcurrentNameAllocator()} hands out names as they are
+ * requested. Allocation never blocks, but when two threads ask for the same name the one that
+ * gets there first wins it, so the names can differ from run to run: <pre>   {@code
+ *
+ *   ConcurrentNameAllocator names = new ConcurrentNameAllocator();
+ *   properties.parallelStream().forEach(property -> {
+ *     String field = names.newName(property.name(), property);
+ *     ...
+ *   });
+ * }</pre>
+ *
+ * <p>An allocator created with {@link #ordered(Comparator)} gives reproducible names instead. Its
+ * threads {@linkplain #reserve reserve} names, and the first call to {@link #get(Object)} assigns
+ * all of them in tag order. The result is the same as if a single thread had called {@link
+ * NameAllocator#newName(String, Object)} for each reservation, sorted by tag: <pre>   {@code
+ *
+ *   ConcurrentNameAllocator names = ConcurrentNameAllocator.ordered(
+ *       Comparator.comparing(MyProperty::index));
+ *   properties.parallelStream().forEach(property -> names.reserve(property.name(), property));
+ *   properties.parallelStream().forEach(property -> {
+ *     String field = names.get(property);
+ *     ...
+ *   });
+ * }</pre>
+ */
+public final class ConcurrentNameAllocator {
+  private final Comparator<Object> tagOrder;
+  private final Set<String> allocatedNames = ConcurrentHashMap.newKeySet();
+  private final Map<Object, String> tagToName = new ConcurrentHashMap<>();
+
+  /** Held while reserving so that ordered allocators can't assign names mid-reservation. */
+  private final ReadWriteLock reservations = new ReentrantReadWriteLock();
+  private volatile boolean assigned;
+
+  /** Creates an allocator that assigns names in the order they are requested. */
+  public ConcurrentNameAllocator() {
+    this(null);
+  }
+
+  private ConcurrentNameAllocator(Comparator<Object> tagOrder) {
+    this.tagOrder = tagOrder;
+  }
+
+  /**
+   * Returns an allocator that assigns names in the order of their tags once all of them have been
+   * reserved. No two tags may compare as equal.
+   */
+  @SuppressWarnings("unchecked")
+  public static ConcurrentNameAllocator ordered(Comparator<?> tagOrder) {
+    checkNotNull(tagOrder, "tagOrder == null");
+    return new ConcurrentNameAllocator((Comparator<Object>) tagOrder);
+  }
+
+  /** Returns an allocator that assigns names in the natural order of their comparable tags. */
+  @SuppressWarnings("unchecked")
+  public static ConcurrentNameAllocator ordered() {
+    return new ConcurrentNameAllocator((a, b) -> ((Comparable<Object>) a).compareTo(b));
+  }
+
+  /**
+   * Return a new name using {@code suggestion} that will not be a Java identifier or clash with
+   * other names.
+   *
+   * @throws IllegalStateException if this allocator is {@linkplain #ordered ordered}.
+   */
+  public String newName(String suggestion) {
+    return newName(suggestion, new Object());
+  }
+
+  /**
+   * Return a new name using {@code suggestion} that will not be a Java identifier or clash with
+   * other names. The returned value can be queried multiple times by passing {@code tag} to
+   * {@link #get(Object)}.
+   *
+   * @throws IllegalStateException if this allocator is {@linkplain #ordered ordered}. Use {@link
+   *     #reserve(String, Object)} instead.
+   */
+  public String newName(String suggestion, Object tag) {
+    checkNotNull(suggestion, "suggestion");
+    checkNotNull(tag, "tag");
+    checkState(tagOrder == null, "ordered allocators assign names on get(); use reserve()");
+
+    suggestion = NameAllocator.toJavaIdentifier(suggestion);
+    while (SourceVersion.isKeyword(suggestion) || !allocatedNames.add(suggestion)) {
+      suggestion = suggestion + "_";
+    }
+
+    String replaced = tagToName.putIfAbsent(tag, suggestion);
+    if (replaced != null) {
+      allocatedNames.remove(suggestion);
+      throw new IllegalArgumentException("tag " + tag + " cannot be used for both '" + replaced
+          + "' and '" + suggestion + "'");
+    }
+    return suggestion;
+  }
+
+  /**
+   * Reserves a name using {@code suggestion} for {@code tag}, to be retrieved with {@link
+   * #get(Object)}. Allocators that aren't {@linkplain #ordered ordered} allocate the name now.
+   *
+   * @throws IllegalStateException if names have already been assigned by a call to {@code get()}.
+   */
+  public void reserve(String suggestion, Object tag) {
+    if (tagOrder == null) {
+      newName(suggestion, tag);
+      return;
+    }
+    checkNotNull(suggestion, "suggestion");
+    checkNotNull(tag, "tag");
+
+    reservations.readLock().lock();
+    try {
+      checkState(!assigned, "names have already been assigned; cannot reserve %s", tag);
+      String replaced = tagToName.putIfAbsent(tag, suggestion);
+      checkArgument(replaced == null, "tag %s cannot be used for both '%s' and '%s'",
+          tag, replaced, suggestion);
+    } finally {
+      reservations.readLock().unlock();
+    }
+  }
+
+  /**
+   * Retrieve a name created with {@link #newName(String, Object)} or {@link #reserve(String,
+   * Object)}. The first call on an ordered allocator assigns every reserved name.
+   */
+  public String get(Object tag) {
+    if (tagOrder != null && !assigned) assignNames();
+    String result = tagToName.get(tag);
+    if (result == null) {
+      throw new IllegalArgumentException("unknown tag: " + tag);
+    }
+    return result;
+  }
+
+  /** Replaces each reserved suggestion with its name, allocating them in tag order. */
+  private void assignNames() {
+    reservations.writeLock().lock();
+    try {
+      if (assigned) return;
+
+      List<Object> tags = new ArrayList<>(tagToName.keySet());
+      Collections.sort(tags, tagOrder);
+      for (int i = 1; i < tags.size(); i++) {
+        checkState(tagOrder.compare(tags.get(i - 1), tags.get(i)) != 0,
+            "tags %s and %s are ordered equally", tags.get(i - 1), tags.get(i));
+      }
+
+      NameAllocator nameAllocator = new NameAllocator();
+      Map<Object, String> names = new LinkedHashMap<>();
+      for (Object tag : tags) {
+        names.put(tag, nameAllocator.newName(tagToName.get(tag), tag));
+      }
+      tagToName.putAll(names);
+      assigned = true;
+    } finally {
+      reservations.writeLock().unlock();
+    }
+  }
+}
@@ -43,7 +43,7 @@ public final class FieldSpec {
     this.name = checkNotNull(builder.name, "name == null");
     this.javadoc = builder.javadoc.build();
     this.annotations = Util.immutableList(builder.annotations);
-    this.modifiers = Util.immutableSet(builder.modifiers);
+    this.modifiers = Util.immutableModifiers(builder.modifiers);
     this.initializer = (builder.initializer == null)
         ? CodeBlock.builder().build()
         : builder.initializer;
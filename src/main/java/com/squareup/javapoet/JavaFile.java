@@ -17,6 +17,7 @@ package com.squareup.javapoet;
 
 import javax.annotation.processing.Filer;
 import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
 import javax.tools.JavaFileObject;
 import javax.tools.JavaFileObject.Kind;
 import javax.tools.SimpleJavaFileObject;
@@ -28,22 +29,36 @@ import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.squareup.javapoet.Util.checkArgument;
 import static com.squareup.javapoet.Util.checkNotNull;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-/** A Java file containing a single top level class. */
+/**
+ * A Java file containing a single top level class.
+ *
+ * <p>Files, specs and type names are immutable. Any number of threads may render or write the
+ * same file, or files that share specs, type names or a {@link RenderCache}, at the same time.
+ */
 public final class JavaFile {
   private static final Appendable NULL_APPENDABLE = new Appendable() {
     @Override public Appendable append(CharSequence charSequence) {
@@ -57,25 +72,78 @@ public final class JavaFile {
     }
   };
 
+  /** Counts the characters and lines written to an appendable. */
+  private static final class CountingAppendable implements Appendable {
+    private final Appendable out;
+    long characterCount;
+    int lineCount;
+
+    CountingAppendable(Appendable out) {
+      this.out = out;
+    }
+
+    @Override public Appendable append(CharSequence csq) throws IOException {
+      return append(csq, 0, csq.length());
+    }
+
+    @Override public Appendable append(CharSequence csq, int start, int end) throws IOException {
+      characterCount += end - start;
+      for (int i = start; i < end; i++) {
+        if (csq.charAt(i) == '\n') lineCount++;
+      }
+      out.append(csq, start, end);
+      return this;
+    }
+
+    @Override public Appendable append(char c) throws IOException {
+      characterCount++;
+      if (c == '\n') lineCount++;
+      out.append(c);
+      return this;
+    }
+  }
+
+  private static final Set<StandardOpenOption> ASYNC_WRITE_OPTIONS = EnumSet.of(
+      StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+  private static volatile RenderListener defaultRenderListener;
+
   public final CodeBlock fileComment;
   public final String packageName;
   public final TypeSpec typeSpec;
   public final boolean skipJavaLangImports;
+  public final boolean textBlocks;
   private final Set<String> staticImports;
-  private final Set<String> alwaysQualify;
+  /**
+   * Simple names to always qualify, collected from the type tree on first use. Published without
+   * synchronization: the set is only reached through an unmodifiable wrapper's final field.
+   */
+  private Set<String> alwaysQualify;
   private final String indent;
+  private final RenderCache renderCache;
+  private final RenderListener renderListener;
 
   private JavaFile(Builder builder) {
     this.fileComment = builder.fileComment.build();
     this.packageName = builder.packageName;
     this.typeSpec = builder.typeSpec;
     this.skipJavaLangImports = builder.skipJavaLangImports;
+    this.textBlocks = builder.textBlocks;
     this.staticImports = Util.immutableSet(builder.staticImports);
     this.indent = builder.indent;
+    this.renderCache = builder.renderCache;
+    this.renderListener = builder.renderListener;
+  }
 
-    Set<String> alwaysQualifiedNames = new LinkedHashSet<>();
-    fillAlwaysQualifiedNames(builder.typeSpec, alwaysQualifiedNames);
-    this.alwaysQualify = Util.immutableSet(alwaysQualifiedNames);
+  private Set<String> alwaysQualify() {
+    Set<String> result = alwaysQualify;
+    if (result == null) {
+      Set<String> alwaysQualifiedNames = new LinkedHashSet<>();
+      fillAlwaysQualifiedNames(typeSpec, alwaysQualifiedNames);
+      result = Util.immutableSet(alwaysQualifiedNames);
+      alwaysQualify = result;
+    }
+    return result;
   }
 
   private void fillAlwaysQualifiedNames(TypeSpec spec, Set<String> alwaysQualifiedNames) {
@@ -86,20 +154,81 @@ public final class JavaFile {
   }
 
   public void writeTo(Appendable out) throws IOException {
+    RenderListener listener = renderListener != null ? renderListener : defaultRenderListener;
+    long start = listener != null ? System.nanoTime() : 0L;
+    Object importsEvent = JfrEvents.beginRender();
+
     // First pass: emit the entire class, just to collect the types we'll need to import.
     CodeWriter importsCollector = new CodeWriter(
         NULL_APPENDABLE,
         indent,
+        Collections.emptyMap(),
         staticImports,
-        alwaysQualify
+        alwaysQualify(),
+        textBlocks
     );
+    useRenderCache(importsCollector, 0, Collections.emptyMap());
+    if (listener != null) {
+      importsCollector.renderListener(listener, this, RenderListener.Pass.IMPORTS);
+    }
     emit(importsCollector);
     Map<String, ClassName> suggestedImports = importsCollector.suggestedImports();
+    long importPassEnd = listener != null ? System.nanoTime() : 0L;
+    if (importsEvent != null) {
+      JfrEvents.endRender(importsEvent, fileName(), RenderListener.Pass.IMPORTS, 0L);
+    }
 
     // Second pass: write the code, taking advantage of the imports.
-    CodeWriter codeWriter
-        = new CodeWriter(out, indent, suggestedImports, staticImports, alwaysQualify);
-    emit(codeWriter);
+    Object outputEvent = JfrEvents.beginRender();
+    CountingAppendable counter = listener != null || outputEvent != null
+        ? new CountingAppendable(out)
+        : null;
+    CodeWriter codeWriter = new CodeWriter(counter != null ? counter : out,
+        indent, suggestedImports, staticImports, alwaysQualify(), textBlocks);
+    useRenderCache(codeWriter, 1, suggestedImports);
+    if (listener != null) {
+      codeWriter.renderListener(listener, this, RenderListener.Pass.OUTPUT);
+    }
+    int importCount = emit(codeWriter);
+    if (outputEvent != null) {
+      JfrEvents.endRender(outputEvent, fileName(), RenderListener.Pass.OUTPUT,
+          counter.characterCount);
+    }
+
+    if (listener != null) {
+      long end = System.nanoTime();
+      listener.fileRendered(this, new RenderListener.Statistics(
+          importPassEnd - start,
+          end - importPassEnd,
+          counter.characterCount,
+          counter.lineCount,
+          importsCollector.typeLookupCount() + codeWriter.typeLookupCount(),
+          importsCollector.importCandidateCount(),
+          importCount,
+          codeWriter.lineWrapCount()));
+    }
+  }
+
+  /**
+   * Sets the listener that is told about the rendering of files that don't have {@linkplain
+   * Builder#renderListener their own}. Pass null to remove it.
+   */
+  public static void setDefaultRenderListener(RenderListener listener) {
+    defaultRenderListener = listener;
+  }
+
+  private void useRenderCache(CodeWriter codeWriter, int pass,
+      Map<String, ClassName> importedTypes) {
+    if (renderCache == null) return;
+    codeWriter.renderCache(renderCache.context(fileName(), pass, importedTypes, staticImports,
+        alwaysQualify(), indent, textBlocks));
+  }
+
+  /** Returns the qualified name of the top-level type. */
+  String fileName() {
+    return packageName.isEmpty()
+        ? typeSpec.name
+        : packageName + "." + typeSpec.name;
   }
 
   /** Writes this to {@code directory} as UTF-8 using the standard directory structure. */
@@ -129,22 +258,136 @@ public final class JavaFile {
    * Returns the {@link Path} instance to which source is actually written.
    */
   public Path writeToPath(Path directory, Charset charset) throws IOException {
+    Path outputPath = outputPath(directory);
+    Object event = JfrEvents.beginWrite();
+    try (Writer writer = new OutputStreamWriter(Files.newOutputStream(outputPath), charset)) {
+      writeTo(writer);
+    }
+    if (event != null) {
+      JfrEvents.endWrite(event, fileName(), outputPath.toString(), Files.size(outputPath));
+    }
+
+    return outputPath;
+  }
+
+  /**
+   * Asynchronously writes this to {@code directory} as UTF-8 using the standard directory
+   * structure. See {@link #writeToAsync(Path, Charset, Executor)}.
+   */
+  public CompletableFuture<Path> writeToAsync(Path directory, Executor executor) {
+    return writeToAsync(directory, UTF_8, executor);
+  }
+
+  /**
+   * Asynchronously writes this to {@code directory} with the provided {@code charset} using the
+   * standard directory structure. This file is rendered and its package directories are created on
+   * {@code executor}; the bytes are then written with an {@link AsynchronousFileChannel}.
+   *
+   * <p>If {@code executor} is an {@link ExecutorService} the channel uses it as its thread pool, so
+   * the write and the completion of the returned future, along with any stages chained to it
+   * without an executor of their own, also run on {@code executor}. Otherwise the channel uses
+   * the JDK's default pool for them. On Linux and macOS that pool performs the write as a blocking
+   * call, so one of its threads waits on the disk for the duration of each write.
+   *
+   * <p>The returned future completes with the {@link Path} written to, or exceptionally with the
+   * exception {@link #writeToPath(Path, Charset)} would have thrown. Cancelling it does not stop a
+   * write that has already started.
+   */
+  public CompletableFuture<Path> writeToAsync(Path directory, Charset charset, Executor executor) {
+    checkNotNull(directory, "directory == null");
+    checkNotNull(charset, "charset == null");
+    checkNotNull(executor, "executor == null");
+    CompletableFuture<Path> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        Object event = JfrEvents.beginWrite();
+        StringBuilder source = new StringBuilder();
+        writeTo(source);
+        ByteBuffer bytes = charset.encode(CharBuffer.wrap(source));
+        Path outputPath = outputPath(directory);
+        AsynchronousFileChannel channel = AsynchronousFileChannel.open(outputPath,
+            ASYNC_WRITE_OPTIONS,
+            executor instanceof ExecutorService ? (ExecutorService) executor : null);
+        new AsyncWrite(channel, bytes, outputPath, result, event).run();
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /** Writes a buffer to a channel, completing a future once all of it has been written. */
+  private final class AsyncWrite implements CompletionHandler<Integer, Void> {
+    private final AsynchronousFileChannel channel;
+    private final ByteBuffer bytes;
+    private final Path outputPath;
+    private final CompletableFuture<Path> result;
+    private final Object event;
+
+    AsyncWrite(AsynchronousFileChannel channel, ByteBuffer bytes, Path outputPath,
+        CompletableFuture<Path> result, Object event) {
+      this.channel = channel;
+      this.bytes = bytes;
+      this.outputPath = outputPath;
+      this.result = result;
+      this.event = event;
+    }
+
+    void run() {
+      try {
+        channel.write(bytes, bytes.position(), null, this);
+      } catch (Throwable e) {
+        failed(e, null);
+      }
+    }
+
+    @Override public void completed(Integer written, Void attachment) {
+      if (bytes.hasRemaining()) {
+        run();
+        return;
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        result.completeExceptionally(e);
+        return;
+      }
+      if (event != null) {
+        JfrEvents.endWrite(event, fileName(), outputPath.toString(), bytes.limit());
+      }
+      result.complete(outputPath);
+    }
+
+    @Override public void failed(Throwable e, Void attachment) {
+      try {
+        channel.close();
+      } catch (IOException closeException) {
+        e.addSuppressed(closeException);
+      }
+      result.completeExceptionally(e);
+    }
+  }
+
+  /** Creates the package directories under {@code directory} and returns the output path. */
+  Path outputPath(Path directory) throws IOException {
     checkArgument(Files.notExists(directory) || Files.isDirectory(directory),
         "path %s exists but is not a directory.", directory);
+    Path outputDirectory = packageDirectory(directory);
+    if (!packageName.isEmpty()) {
+      Files.createDirectories(outputDirectory);
+    }
+    return outputDirectory.resolve(typeSpec.name + ".java");
+  }
+
+  /** Returns the directory under {@code directory} that holds this file's package. */
+  Path packageDirectory(Path directory) {
     Path outputDirectory = directory;
     if (!packageName.isEmpty()) {
       for (String packageComponent : packageName.split("\\.")) {
         outputDirectory = outputDirectory.resolve(packageComponent);
       }
-      Files.createDirectories(outputDirectory);
     }
-
-    Path outputPath = outputDirectory.resolve(typeSpec.name + ".java");
-    try (Writer writer = new OutputStreamWriter(Files.newOutputStream(outputPath), charset)) {
-      writeTo(writer);
-    }
-
-    return outputPath;
+    return outputDirectory;
   }
 
   /** Writes this to {@code directory} as UTF-8 using the standard directory structure. */
@@ -161,12 +404,24 @@ public final class JavaFile {
     return outputPath.toFile();
   }
 
-  /** Writes this to {@code filer}. */
+  /**
+   * Writes this to {@code filer}. Originating elements retained as {@linkplain
+   * TypeSpec.ElementRetention#DESCRIPTOR descriptors} are not passed to the filer; use {@link
+   * #writeTo(Filer, Elements)} to look them up.
+   */
   public void writeTo(Filer filer) throws IOException {
-    String fileName = packageName.isEmpty()
-        ? typeSpec.name
-        : packageName + "." + typeSpec.name;
-    List<Element> originatingElements = typeSpec.originatingElements;
+    writeTo(filer, null);
+  }
+
+  /**
+   * Writes this to {@code filer}, looking up originating elements retained as {@linkplain
+   * TypeSpec.ElementRetention#DESCRIPTOR descriptors} in {@code elementUtils}.
+   */
+  public void writeTo(Filer filer, Elements elementUtils) throws IOException {
+    String fileName = fileName();
+    List<Element> originatingElements =
+        ((OriginatingElements) typeSpec.originatingElements).resolve(elementUtils);
+    Object event = JfrEvents.beginWrite();
     JavaFileObject filerSourceFile = filer.createSourceFile(fileName,
         originatingElements.toArray(new Element[originatingElements.size()]));
     try (Writer writer = filerSourceFile.openWriter()) {
@@ -178,9 +433,13 @@ public final class JavaFile {
       }
       throw e;
     }
+    if (event != null) {
+      JfrEvents.endWrite(event, fileName, filerSourceFile.toUri().toString(), -1L);
+    }
   }
 
-  private void emit(CodeWriter codeWriter) throws IOException {
+  /** Emits this file to {@code codeWriter} and returns the number of types imported. */
+  private int emit(CodeWriter codeWriter) throws IOException {
     codeWriter.pushPackage(packageName);
 
     if (!fileComment.isEmpty()) {
@@ -204,7 +463,7 @@ public final class JavaFile {
       // TODO what about nested types like java.util.Map.Entry?
       if (skipJavaLangImports
           && className.packageName().equals("java.lang")
-          && !alwaysQualify.contains(className.simpleName)) {
+          && !alwaysQualify().contains(className.simpleName)) {
         continue;
       }
       codeWriter.emit("import $L;\n", className.withoutAnnotations());
@@ -218,6 +477,7 @@ public final class JavaFile {
     typeSpec.emit(codeWriter, null, Collections.emptySet());
 
     codeWriter.popPackage();
+    return importedTypesCount;
   }
 
   @Override public boolean equals(Object o) {
@@ -242,10 +502,7 @@ public final class JavaFile {
   }
 
   public JavaFileObject toJavaFileObject() {
-    URI uri = URI.create((packageName.isEmpty()
-        ? typeSpec.name
-        : packageName.replace('.', '/') + '/' + typeSpec.name)
-        + Kind.SOURCE.extension);
+    URI uri = URI.create(relativePath());
     return new SimpleJavaFileObject(uri, Kind.SOURCE) {
       private final long lastModified = System.currentTimeMillis();
       @Override public String getCharContent(boolean ignoreEncodingErrors) {
@@ -260,6 +517,14 @@ public final class JavaFile {
     };
   }
 
+  /** Returns the path of this file relative to a source root, like {@code com/example/Foo.java}. */
+  String relativePath() {
+    return (packageName.isEmpty()
+        ? typeSpec.name
+        : packageName.replace('.', '/') + '/' + typeSpec.name)
+        + Kind.SOURCE.extension;
+  }
+
   public static Builder builder(String packageName, TypeSpec typeSpec) {
     checkNotNull(packageName, "packageName == null");
     checkNotNull(typeSpec, "typeSpec == null");
@@ -267,10 +532,19 @@ public final class JavaFile {
   }
 
   public Builder toBuilder() {
+    return toBuilder(typeSpec);
+  }
+
+  /** Returns a builder with this file's package and settings, declaring {@code typeSpec}. */
+  Builder toBuilder(TypeSpec typeSpec) {
     Builder builder = new Builder(packageName, typeSpec);
     builder.fileComment.add(fileComment);
+    builder.staticImports.addAll(staticImports);
     builder.skipJavaLangImports = skipJavaLangImports;
+    builder.textBlocks = textBlocks;
     builder.indent = indent;
+    builder.renderCache = renderCache;
+    builder.renderListener = renderListener;
     return builder;
   }
 
@@ -279,7 +553,10 @@ public final class JavaFile {
     private final TypeSpec typeSpec;
     private final CodeBlock.Builder fileComment = CodeBlock.builder();
     private boolean skipJavaLangImports;
+    private boolean textBlocks;
     private String indent = "  ";
+    private RenderCache renderCache;
+    private RenderListener renderListener;
 
     public final Set<String> staticImports = new TreeSet<>();
 
@@ -307,7 +584,7 @@ public final class JavaFile {
       checkArgument(names.length > 0, "names array is empty");
       for (String name : names) {
         checkArgument(name != null, "null entry in names array: %s", Arrays.toString(names));
-        staticImports.add(className.canonicalName + "." + name);
+        staticImports.add(className.canonicalName() + "." + name);
       }
       return this;
     }
@@ -325,11 +602,43 @@ public final class JavaFile {
       return this;
     }
 
+    /**
+     * Call this to emit {@code $S} arguments that span multiple lines as text blocks rather than
+     * as concatenations of single-line string literals.
+     *
+     * <p>Text blocks are shorter to read and faster for javac to compile than long chains of
+     * {@code "line\n" + "line\n"}. Quotes, backslashes and trailing spaces are escaped so the
+     * text block's value is exactly the original string.
+     */
+    public Builder textBlocks(boolean textBlocks) {
+      this.textBlocks = textBlocks;
+      return this;
+    }
+
     public Builder indent(String indent) {
       this.indent = indent;
       return this;
     }
 
+    /**
+     * Call this to copy unchanged members from {@code renderCache} instead of rendering them
+     * again. Share a cache between the files produced by successive edits of the same type to
+     * make re-rendering cost proportional to the size of the edit. Null disables caching.
+     */
+    public Builder renderCache(RenderCache renderCache) {
+      this.renderCache = renderCache;
+      return this;
+    }
+
+    /**
+     * Call this to report the timings and counters of rendering this file to {@code listener}
+     * instead of the {@linkplain JavaFile#setDefaultRenderListener default listener}.
+     */
+    public Builder renderListener(RenderListener listener) {
+      this.renderListener = listener;
+      return this;
+    }
+
     public JavaFile build() {
       return new JavaFile(this);
     }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.concurrent.ThreadLocalRandom;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** The Flight Recorder event types emitted through {@link JfrEvents}. */
+final class JfrEventTypes {
+  /** One in this many format parses is recorded. */
+  static final int PARSE_SAMPLE_RATE = 64;
+
+  // Checking the registered types avoids allocating an event just to ask whether it's enabled.
+  private static final EventType RENDER_TYPE = EventType.getEventType(Render.class);
+  private static final EventType WRITE_TYPE = EventType.getEventType(Write.class);
+  private static final EventType PARSE_TYPE = EventType.getEventType(Parse.class);
+
+  private JfrEventTypes() {
+  }
+
+  /** Loads and registers the event types, throwing if Flight Recorder isn't supported. */
+  static void load() {
+  }
+
+  static Object beginRender() {
+    if (!RENDER_TYPE.isEnabled()) return null;
+    Render event = new Render();
+    event.begin();
+    return event;
+  }
+
+  static void endRender(Object event, String file, RenderListener.Pass pass, long characters) {
+    Render render = (Render) event;
+    render.end();
+    if (render.shouldCommit()) {
+      render.file = file;
+      render.pass = pass.name();
+      render.characters = characters;
+      render.commit();
+    }
+  }
+
+  static Object beginWrite() {
+    if (!WRITE_TYPE.isEnabled()) return null;
+    Write event = new Write();
+    event.begin();
+    return event;
+  }
+
+  static void endWrite(Object event, String file, String destination, long bytes) {
+    Write write = (Write) event;
+    write.end();
+    if (write.shouldCommit()) {
+      write.file = file;
+      write.destination = destination;
+      write.bytes = bytes;
+      write.commit();
+    }
+  }
+
+  static Object beginParse() {
+    if (!PARSE_TYPE.isEnabled()
+        || ThreadLocalRandom.current().nextInt(PARSE_SAMPLE_RATE) != 0) {
+      return null;
+    }
+    Parse event = new Parse();
+    event.begin();
+    return event;
+  }
+
+  static void endParse(Object event, String format, int argumentCount) {
+    Parse parse = (Parse) event;
+    parse.end();
+    if (parse.shouldCommit()) {
+      parse.formatLength = format.length();
+      parse.argumentCount = argumentCount;
+      parse.commit();
+    }
+  }
+
+  @Name("com.squareup.javapoet.Render")
+  @Label("Render Java File")
+  @Description("One pass of rendering a Java file: collecting imports or writing the output")
+  @Category("JavaPoet")
+  @Enabled(false)
+  @StackTrace(false)
+  static final class Render extends Event {
+    @Label("File")
+    @Description("Qualified name of the file's top-level type")
+    String file;
+
+    @Label("Pass")
+    String pass;
+
+    @Label("Characters")
+    @Description("Characters written, or 0 for the imports pass")
+    long characters;
+  }
+
+  @Name("com.squareup.javapoet.Write")
+  @Label("Write Java File")
+  @Description("Rendering a Java file and writing it to a directory or an annotation processing"
+      + " filer")
+  @Category("JavaPoet")
+  @Enabled(false)
+  static final class Write extends Event {
+    @Label("File")
+    @Description("Qualified name of the file's top-level type")
+    String file;
+
+    @Label("Destination")
+    String destination;
+
+    @Label("Size")
+    @Description("Size of the written file, or -1 if the filer doesn't report it")
+    @DataAmount
+    long bytes;
+  }
+
+  @Name("com.squareup.javapoet.ParseFormat")
+  @Label("Parse Code Block Format")
+  @Description("Parsing the format string of CodeBlock.Builder.add(), sampled at one in "
+      + PARSE_SAMPLE_RATE + " calls")
+  @Category("JavaPoet")
+  @Enabled(false)
+  static final class Parse extends Event {
+    @Label("Format Length")
+    int formatLength;
+
+    @Label("Argument Count")
+    int argumentCount;
+  }
+}
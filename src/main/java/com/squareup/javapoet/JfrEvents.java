@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+/**
+ * Emits Java Flight Recorder events for rendering and writing files and for parsing code block
+ * formats. The events are disabled by default; enable them in a recording's settings.
+ *
+ * <p>Nothing in {@code jdk.jfr} is touched until Flight Recorder has started a recording, so
+ * generating code doesn't start Flight Recorder or load its classes. Until then each call costs a
+ * system property lookup; afterwards it costs a disabled-event check. The event types live in
+ * {@link JfrEventTypes}, which is only loaded once a recording has started. If loading them
+ * fails, as it may on a VM built without Flight Recorder support, no events are emitted.
+ */
+final class JfrEvents {
+  /**
+   * Flight Recorder sets this property to its repository directory when it starts its first
+   * recording. No event can be recorded before then.
+   */
+  private static final String REPOSITORY_PROPERTY = "jdk.jfr.repository";
+
+  private static final boolean AVAILABLE = isAvailable();
+
+  /** True once a recording has started and the event types have loaded. */
+  private static volatile boolean started;
+  /** True if the event types couldn't be loaded. */
+  private static volatile boolean failed;
+
+  private JfrEvents() {
+  }
+
+  /** Returns true if the runtime includes the {@code jdk.jfr} module, without loading it. */
+  private static boolean isAvailable() {
+    try {
+      return ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+    } catch (Throwable e) {
+      return false;
+    }
+  }
+
+  private static boolean started() {
+    if (started) return true;
+    if (!AVAILABLE || failed || System.getProperty(REPOSITORY_PROPERTY) == null) return false;
+    try {
+      JfrEventTypes.load();
+      started = true;
+    } catch (Throwable e) {
+      failed = true;
+    }
+    return started;
+  }
+
+  /** Returns a started render event, or null if render events aren't being recorded. */
+  static Object beginRender() {
+    return started() ? JfrEventTypes.beginRender() : null;
+  }
+
+  static void endRender(Object event, String file, RenderListener.Pass pass, long characters) {
+    JfrEventTypes.endRender(event, file, pass, characters);
+  }
+
+  /** Returns a started write event, or null if write events aren't being recorded. */
+  static Object beginWrite() {
+    return started() ? JfrEventTypes.beginWrite() : null;
+  }
+
+  static void endWrite(Object event, String file, String destination, long bytes) {
+    JfrEventTypes.endWrite(event, file, destination, bytes);
+  }
+
+  /**
+   * Returns a started format parse event for a sample of calls, or null if this call isn't sampled
+   * or parse events aren't being recorded.
+   */
+  static Object beginParse() {
+    return started() ? JfrEventTypes.beginParse() : null;
+  }
+
+  static void endParse(Object event, String format, int argumentCount) {
+    JfrEventTypes.endParse(event, format, argumentCount);
+  }
+}
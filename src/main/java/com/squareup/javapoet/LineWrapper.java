@@ -45,6 +45,9 @@ final class LineWrapper {
    */
   private FlushType nextFlush;
 
+  /** The number of lines that were wrapped. */
+  private int wrapCount;
+
   LineWrapper(Appendable out, String indent, int columnLimit) {
     checkNotNull(out, "out == null");
     this.out = new RecordingAppendable(out);
@@ -57,6 +60,21 @@ final class LineWrapper {
     return out.lastChar;
   }
 
+  /** Returns true if nothing is buffered waiting for a wrapping decision. */
+  boolean isFlushed() {
+    return nextFlush == null;
+  }
+
+  /** Returns the number of line wraps emitted so far. */
+  int wrapCount() {
+    return wrapCount;
+  }
+
+  /** Copies all characters written from now on to {@code capture}, or stops copying if null. */
+  void capture(StringBuilder capture) {
+    out.capture = capture;
+  }
+
   /** Emit {@code s}. This may be buffered to permit line wraps to be inserted. */
   void append(String s) throws IOException {
     if (closed) throw new IllegalStateException("closed");
@@ -114,6 +132,7 @@ final class LineWrapper {
   private void flush(FlushType flushType) throws IOException {
     switch (flushType) {
       case WRAP:
+        wrapCount++;
         out.append('\n');
         for (int i = 0; i < indentLevel; i++) {
           out.append(indent);
@@ -145,6 +164,7 @@ final class LineWrapper {
     private final Appendable delegate;
 
     char lastChar = Character.MIN_VALUE;
+    StringBuilder capture;
 
     RecordingAppendable(Appendable delegate) {
       this.delegate = delegate;
@@ -155,6 +175,9 @@ final class LineWrapper {
       if (length != 0) {
         lastChar = csq.charAt(length - 1);
       }
+      if (capture != null) {
+        capture.append(csq);
+      }
       return delegate.append(csq);
     }
 
@@ -165,6 +188,9 @@ final class LineWrapper {
 
     @Override public Appendable append(char c) throws IOException {
       lastChar = c;
+      if (capture != null) {
+        capture.append(c);
+      }
       return delegate.append(c);
     }
   }
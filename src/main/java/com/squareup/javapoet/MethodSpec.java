@@ -56,6 +56,9 @@ public final class MethodSpec {
   public final CodeBlock code;
   public final CodeBlock defaultValue;
 
+  /** The javadoc followed by the {@code @param} tags of documented parameters. */
+  final CodeBlock javadocWithParameters;
+
   private MethodSpec(Builder builder) {
     CodeBlock code = builder.code.build();
     checkArgument(code.isEmpty() || !builder.modifiers.contains(Modifier.ABSTRACT),
@@ -66,7 +69,7 @@ public final class MethodSpec {
     this.name = checkNotNull(builder.name, "name == null");
     this.javadoc = builder.javadoc.build();
     this.annotations = Util.immutableList(builder.annotations);
-    this.modifiers = Util.immutableSet(builder.modifiers);
+    this.modifiers = Util.immutableModifiers(builder.modifiers);
     this.typeVariables = Util.immutableList(builder.typeVariables);
     this.returnType = builder.returnType;
     this.parameters = Util.immutableList(builder.parameters);
@@ -74,6 +77,7 @@ public final class MethodSpec {
     this.exceptions = Util.immutableList(builder.exceptions);
     this.defaultValue = builder.defaultValue;
     this.code = code;
+    this.javadocWithParameters = javadocWithParameters();
   }
 
   private boolean lastParameterIsArray(List<ParameterSpec> parameters) {
@@ -83,7 +87,7 @@ public final class MethodSpec {
 
   void emit(CodeWriter codeWriter, String enclosingName, Set<Modifier> implicitModifiers)
       throws IOException {
-    codeWriter.emitJavadoc(javadocWithParameters());
+    codeWriter.emitJavadoc(javadocWithParameters);
     codeWriter.emitAnnotations(annotations, false);
     codeWriter.emitModifiers(modifiers, implicitModifiers);
 
@@ -142,17 +146,18 @@ public final class MethodSpec {
   }
 
   private CodeBlock javadocWithParameters() {
-    CodeBlock.Builder builder = javadoc.toBuilder();
+    CodeBlock.Builder builder = null;
     boolean emitTagNewline = true;
     for (ParameterSpec parameterSpec : parameters) {
       if (!parameterSpec.javadoc.isEmpty()) {
+        if (builder == null) builder = javadoc.toBuilder();
         // Emit a new line before @param section only if the method javadoc is present.
         if (emitTagNewline && !javadoc.isEmpty()) builder.add("\n");
         emitTagNewline = false;
         builder.add("@param $L $L", parameterSpec.name, parameterSpec.javadoc);
       }
     }
-    return builder.build();
+    return builder != null ? builder.build() : javadoc;
   }
 
   public boolean hasModifier(Modifier modifier) {
@@ -302,10 +307,10 @@ public final class MethodSpec {
     private boolean varargs;
     private CodeBlock defaultValue;
 
-    public final List<TypeVariableName> typeVariables = new ArrayList<>();
-    public final List<AnnotationSpec> annotations = new ArrayList<>();
+    public final List<TypeVariableName> typeVariables = new PersistentVector.MutableList<>();
+    public final List<AnnotationSpec> annotations = new PersistentVector.MutableList<>();
     public final List<Modifier> modifiers = new ArrayList<>();
-    public final List<ParameterSpec> parameters = new ArrayList<>();
+    public final List<ParameterSpec> parameters = new PersistentVector.MutableList<>();
 
     private Builder(String name) {
       setName(name);
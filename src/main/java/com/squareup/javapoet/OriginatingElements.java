@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * The originating elements of a type followed by those of its nested types, in declaration order.
+ * The concatenation is computed on first access rather than when the type is built, so building
+ * deeply nested types doesn't copy each level's elements into every enclosing level.
+ *
+ * <p>Each type retains its own elements as its builder's {@link TypeSpec.ElementRetention}
+ * specifies. Only a tree whose elements are all held strongly caches the concatenation, and only
+ * such a tree is {@link RandomAccess}. Other trees resolve the elements that are still reachable
+ * on every call: {@link #iterator()} and {@code toArray()} each see one consistent snapshot, but
+ * {@link #size()} and {@link #get(int)} resolve again each time and may disagree if an element is
+ * collected in between. Iterate over or copy such a list rather than indexing into it.
+ */
+class OriginatingElements extends AbstractList<Element> {
+  /** Elements, weak references to elements, or descriptors of elements. */
+  private final List<Object> declared;
+  private final List<TypeSpec> typeSpecs;
+  private final TypeSpec.ElementRetention retention;
+  private final boolean strong;
+
+  /** The concatenated elements, or null until first accessed. */
+  private List<Element> elements;
+
+  private OriginatingElements(List<Object> declared, List<TypeSpec> typeSpecs,
+      TypeSpec.ElementRetention retention, boolean strong) {
+    this.declared = declared;
+    this.typeSpecs = typeSpecs;
+    this.retention = retention;
+    this.strong = strong;
+  }
+
+  static OriginatingElements create(List<Object> retained, List<Element> added,
+      TypeSpec.ElementRetention retention, List<TypeSpec> typeSpecs) {
+    boolean strong = retention == TypeSpec.ElementRetention.STRONG;
+    PersistentVector.MutableList<Object> declared = new PersistentVector.MutableList<>();
+    declared.addAll(retained);
+    for (Object element : retained) {
+      if (!(element instanceof Element)) strong = false;
+    }
+    for (Element element : added) {
+      declared.add(retain(element, retention));
+    }
+    for (TypeSpec typeSpec : typeSpecs) {
+      strong &= ((OriginatingElements) typeSpec.originatingElements).strong;
+    }
+    return strong
+        ? new Strong(declared.snapshot(), typeSpecs, retention)
+        : new OriginatingElements(declared.snapshot(), typeSpecs, retention, false);
+  }
+
+  private static Object retain(Element element, TypeSpec.ElementRetention retention) {
+    switch (retention) {
+      case WEAK:
+        return new WeakReference<>(element);
+      case DESCRIPTOR:
+        for (Element e = element; e != null; e = e.getEnclosingElement()) {
+          if (e instanceof TypeElement) {
+            return new Descriptor(false, ((TypeElement) e).getQualifiedName().toString());
+          }
+          if (e instanceof PackageElement) {
+            return new Descriptor(true, ((PackageElement) e).getQualifiedName().toString());
+          }
+        }
+        return new WeakReference<>(element); // A module or an element without a type or package.
+      default:
+        return element;
+    }
+  }
+
+  @Override public Element get(int index) {
+    return elements().get(index);
+  }
+
+  @Override public int size() {
+    return elements().size();
+  }
+
+  @Override public Iterator<Element> iterator() {
+    return elements().iterator();
+  }
+
+  @Override public Object[] toArray() {
+    return elements().toArray();
+  }
+
+  @Override public <T> T[] toArray(T[] a) {
+    return elements().toArray(a);
+  }
+
+  private List<Element> elements() {
+    List<Element> result = elements;
+    if (result == null) {
+      result = resolve(null);
+      // Immutable and safely published, so racing threads may both compute it.
+      if (strong) elements = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the originating elements that are still reachable, looking up descriptors in {@code
+   * elementUtils} if it isn't null and skipping them otherwise.
+   */
+  List<Element> resolve(Elements elementUtils) {
+    if (strong && typeSpecs.isEmpty()) {
+      @SuppressWarnings("unchecked") // Every declared element is held strongly.
+      List<Element> result = (List<Element>) (List<?>) declared;
+      return result;
+    }
+    PersistentVector.MutableList<Element> all = new PersistentVector.MutableList<>();
+    addTo(all, elementUtils);
+    return all.snapshot();
+  }
+
+  /** Appends these elements to {@code all} without caching the nested types' concatenations. */
+  private void addTo(List<Element> all, Elements elementUtils) {
+    List<Element> computed = elements;
+    if (computed != null) {
+      all.addAll(computed);
+      return;
+    }
+    for (Object object : declared) {
+      Element element = resolve(object, elementUtils);
+      if (element != null) all.add(element);
+    }
+    for (TypeSpec typeSpec : typeSpecs) {
+      ((OriginatingElements) typeSpec.originatingElements).addTo(all, elementUtils);
+    }
+  }
+
+  private static Element resolve(Object object, Elements elementUtils) {
+    if (object instanceof Element) {
+      return (Element) object;
+    }
+    if (object instanceof WeakReference) {
+      return (Element) ((WeakReference<?>) object).get();
+    }
+    if (elementUtils == null) {
+      return null;
+    }
+    Descriptor descriptor = (Descriptor) object;
+    return descriptor.isPackage
+        ? elementUtils.getPackageElement(descriptor.qualifiedName)
+        : elementUtils.getTypeElement(descriptor.qualifiedName);
+  }
+
+  /**
+   * Returns the retained forms of these elements and those of the nested types: elements, weak
+   * references and descriptors.
+   */
+  List<Object> retained() {
+    List<Object> all = new ArrayList<>();
+    addRetainedTo(all);
+    return all;
+  }
+
+  /**
+   * Returns this type's own elements that are still reachable, without those of its nested types
+   * and without descriptors.
+   */
+  List<Element> declaredElements() {
+    List<Element> result = new ArrayList<>();
+    for (Object object : declared) {
+      Element element = resolve(object, null);
+      if (element != null) result.add(element);
+    }
+    return result;
+  }
+
+  /** Returns the descriptors of this type's own elements. */
+  List<Object> declaredDescriptors() {
+    List<Object> result = new ArrayList<>();
+    for (Object object : declared) {
+      if (object instanceof Descriptor) result.add(object);
+    }
+    return result;
+  }
+
+  TypeSpec.ElementRetention retention() {
+    return retention;
+  }
+
+  private void addRetainedTo(List<Object> all) {
+    all.addAll(declared);
+    for (TypeSpec typeSpec : typeSpecs) {
+      ((OriginatingElements) typeSpec.originatingElements).addRetainedTo(all);
+    }
+  }
+
+  /** A tree whose elements are all held strongly, so indexing reads the cached concatenation. */
+  private static final class Strong extends OriginatingElements implements RandomAccess {
+    Strong(List<Object> declared, List<TypeSpec> typeSpecs, TypeSpec.ElementRetention retention) {
+      super(declared, typeSpecs, retention, true);
+    }
+  }
+
+  /** The qualified name of a type or package, looked up when the file is written. */
+  private static final class Descriptor {
+    final boolean isPackage;
+    final String qualifiedName;
+
+    Descriptor(boolean isPackage, String qualifiedName) {
+      this.isPackage = isPackage;
+      this.qualifiedName = qualifiedName;
+    }
+  }
+}
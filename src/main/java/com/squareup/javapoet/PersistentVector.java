@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list that shares structure with the lists it was derived from. Elements are stored
+ * in a 32-way trie of arrays plus a tail array holding the last 1 to 32 elements, so lookups are
+ * effectively constant time and appending only copies the path to the last leaf.
+ *
+ * <p>Spec builders hold their lists in a {@link MutableList}. Building a spec takes a {@linkplain
+ * MutableList#snapshot snapshot} in constant time, and {@code toBuilder()} adopts the spec's
+ * vector in constant time. A small edit to a big spec therefore copies O(log n) elements rather
+ * than the whole list, twice.
+ */
+final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+  private static final Object[] NO_ELEMENTS = new Object[0];
+  private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+
+  private final int size;
+  private final int shift;
+  private final Node root;
+  private final Object[] tail;
+
+  private PersistentVector(int size, int shift, Node root, Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  @Override public int size() {
+    return size;
+  }
+
+  @Override @SuppressWarnings("unchecked")
+  public E get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+    return (E) leaf(index, size, shift, root, tail)[index & MASK];
+  }
+
+  @Override public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      int index = 0;
+      Object[] leaf = tail;
+
+      @Override public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override @SuppressWarnings("unchecked")
+      public E next() {
+        if (index >= size) throw new NoSuchElementException();
+        if ((index & MASK) == 0) leaf = leaf(index, size, shift, root, tail);
+        return (E) leaf[index++ & MASK];
+      }
+    };
+  }
+
+  private static int tailOffset(int size) {
+    return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+  }
+
+  /** Returns the array holding element {@code index}. */
+  private static Object[] leaf(int index, int size, int shift, Node root, Object[] tail) {
+    if (index >= tailOffset(size)) return tail;
+    Node node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Node) node.array[(index >>> level) & MASK];
+    }
+    return node.array;
+  }
+
+  /**
+   * A trie node. Nodes whose {@code owner} is a {@link MutableList}'s current owner token belong
+   * to that list alone and are updated in place; all other nodes are shared and copied on write.
+   */
+  private static final class Node {
+    final Object owner;
+    final Object[] array;
+
+    Node(Object owner, Object[] array) {
+      this.owner = owner;
+      this.array = array;
+    }
+  }
+
+  /**
+   * A mutable list for spec builders. Appending and replacing elements copy at most one path of
+   * the trie; other modifications rebuild the list.
+   */
+  static final class MutableList<E> extends AbstractList<E> implements RandomAccess {
+    private Object owner = new Object();
+    private int size;
+    private int shift = BITS;
+    private Node root = EMPTY_NODE;
+    private Object[] tail = new Object[WIDTH];
+
+    @Override public int size() {
+      return size;
+    }
+
+    @Override @SuppressWarnings("unchecked")
+    public E get(int index) {
+      checkIndex(index, size);
+      return (E) leaf(index, size, shift, root, tail)[index & MASK];
+    }
+
+    @Override public E set(int index, E element) {
+      checkIndex(index, size);
+      E previous = get(index);
+      if (index >= tailOffset(size)) {
+        tail[index & MASK] = element;
+      } else {
+        root = set(shift, root, index, element);
+      }
+      return previous;
+    }
+
+    private Node set(int level, Node node, int index, Object element) {
+      Node result = editable(node);
+      if (level == 0) {
+        result.array[index & MASK] = element;
+      } else {
+        int child = (index >>> level) & MASK;
+        result.array[child] = set(level - BITS, (Node) node.array[child], index, element);
+      }
+      return result;
+    }
+
+    @Override public void add(int index, E element) {
+      if (index == size) {
+        append(element);
+      } else {
+        checkIndex(index, size);
+        Object[] elements = toArray();
+        Object[] result = new Object[size + 1];
+        System.arraycopy(elements, 0, result, 0, index);
+        result[index] = element;
+        System.arraycopy(elements, index, result, index + 1, size - index);
+        rebuild(result, result.length);
+      }
+      modCount++;
+    }
+
+    @Override public E remove(int index) {
+      checkIndex(index, size);
+      E removed = get(index);
+      if (index == size - 1 && index > tailOffset(size)) {
+        tail[index & MASK] = null;
+        size--;
+      } else {
+        Object[] elements = toArray();
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        rebuild(elements, size - 1);
+      }
+      modCount++;
+      return removed;
+    }
+
+    @Override public void clear() {
+      reset();
+      modCount++;
+    }
+
+    @Override public boolean addAll(Collection<? extends E> collection) {
+      if (size == 0 && collection instanceof MutableList) {
+        collection = ((MutableList<? extends E>) collection).snapshot();
+      }
+      if (size == 0 && collection instanceof PersistentVector) {
+        // Adopt the vector's trie. Its nodes aren't owned by this list so they're copied on write.
+        PersistentVector<? extends E> vector = (PersistentVector<? extends E>) collection;
+        size = vector.size;
+        shift = vector.shift;
+        root = vector.root;
+        tail = Arrays.copyOf(vector.tail, WIDTH);
+        modCount++;
+        return size != 0;
+      }
+      return super.addAll(collection);
+    }
+
+    /**
+     * Returns an immutable copy of this list in constant time. Nodes shared with the copy are no
+     * longer owned by this list, so later modifications copy them first.
+     */
+    PersistentVector<E> snapshot() {
+      if (size == 0) return new PersistentVector<>(0, BITS, EMPTY_NODE, NO_ELEMENTS);
+      owner = new Object();
+      return new PersistentVector<>(size, shift, root,
+          Arrays.copyOf(tail, size - tailOffset(size)));
+    }
+
+    private void append(Object element) {
+      if (size - tailOffset(size) < WIDTH) {
+        tail[size & MASK] = element;
+        size++;
+        return;
+      }
+
+      // The tail is full. Push it into the trie and start a new one.
+      Node tailNode = new Node(owner, tail);
+      if ((size >>> BITS) > (1 << shift)) {
+        Node newRoot = new Node(owner, new Object[WIDTH]);
+        newRoot.array[0] = root;
+        newRoot.array[1] = newPath(shift, tailNode);
+        root = newRoot;
+        shift += BITS;
+      } else {
+        root = pushTail(shift, root, tailNode);
+      }
+      tail = new Object[WIDTH];
+      tail[0] = element;
+      size++;
+    }
+
+    private Node pushTail(int level, Node parent, Node tailNode) {
+      Node result = editable(parent);
+      int child = ((size - 1) >>> level) & MASK;
+      if (level == BITS) {
+        result.array[child] = tailNode;
+      } else {
+        Node existing = (Node) parent.array[child];
+        result.array[child] = existing != null
+            ? pushTail(level - BITS, existing, tailNode)
+            : newPath(level - BITS, tailNode);
+      }
+      return result;
+    }
+
+    private Node newPath(int level, Node node) {
+      for (; level > 0; level -= BITS) {
+        Node parent = new Node(owner, new Object[WIDTH]);
+        parent.array[0] = node;
+        node = parent;
+      }
+      return node;
+    }
+
+    private Node editable(Node node) {
+      return node.owner == owner ? node : new Node(owner, node.array.clone());
+    }
+
+    private void reset() {
+      size = 0;
+      shift = BITS;
+      root = EMPTY_NODE;
+      tail = new Object[WIDTH];
+    }
+
+    private void rebuild(Object[] elements, int length) {
+      reset();
+      for (int i = 0; i < length; i++) {
+        append(elements[i]);
+      }
+    }
+
+    private static void checkIndex(int index, int size) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+      }
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Remembers the rendered source of fields, methods and nested types so that re-rendering a file
+ * after a small edit only renders the members that changed. To use, share one instance between
+ * the {@link JavaFile}s that should benefit from it: <pre>   {@code
+ *
+ *   RenderCache renderCache = new RenderCache();
+ *   JavaFile.builder("com.example", typeSpec).renderCache(renderCache).build().writeTo(out);
+ *
+ *   TypeSpec edited = typeSpec.toBuilder().addMethod(newMethod).build();
+ *   JavaFile.builder("com.example", edited).renderCache(renderCache).build().writeTo(out);
+ * }</pre>
+ *
+ * Specs are immutable, so a member's source only depends on its surroundings: the file's
+ * imports, the enclosing types and the indentation. Members are cached by identity and reused
+ * whenever those surroundings are unchanged. When a file's imports change, everything cached for
+ * that file is invalidated. Entries are held weakly and disappear once their specs are garbage,
+ * and a file's context is released once no cached member refers to it.
+ *
+ * <p>This class is thread safe.
+ */
+public final class RenderCache {
+  /**
+   * The current context of each pass of each file, keyed by file name and pass. Contexts are
+   * reachable from the fragments rendered in them, so a context is only collected once none of
+   * its fragments remain.
+   */
+  private final Map<String, ContextReference> contexts = new HashMap<>();
+  private final Map<Object, Fragment[]> fragments = new HashMap<>();
+  private final ReferenceQueue<Object> expired = new ReferenceQueue<>();
+  private final ReferenceQueue<Context> expiredContexts = new ReferenceQueue<>();
+  private long hitCount;
+  private long missCount;
+
+  /** Returns the number of members that were copied from this cache rather than rendered. */
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  /** Returns the number of members that had to be rendered. */
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  /** Returns the fraction of member renders that were served from this cache, or 0 if none. */
+  public synchronized double hitRate() {
+    long requestCount = hitCount + missCount;
+    return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+  }
+
+  /** Returns the number of members with cached source. */
+  public synchronized int size() {
+    expunge();
+    return fragments.size();
+  }
+
+  /** Returns the number of file passes with a live context. */
+  synchronized int contextCount() {
+    expunge();
+    return contexts.size();
+  }
+
+  /** Discards all cached source. The hit and miss counts are retained. */
+  public synchronized void clear() {
+    contexts.clear();
+    fragments.clear();
+  }
+
+  @Override public synchronized String toString() {
+    return String.format("RenderCache{size=%s, hits=%s, misses=%s, hitRate=%.3f}",
+        fragments.size(), hitCount, missCount, hitRate());
+  }
+
+  /**
+   * Returns the context for rendering pass {@code pass} of {@code fileName}. If anything that
+   * affects all members of the file has changed since the previous render, a new context is
+   * returned and fragments cached for the old one no longer match.
+   */
+  synchronized Context context(String fileName, int pass, Map<String, ClassName> importedTypes,
+      Set<String> staticImports, Set<String> alwaysQualify, String indent, boolean textBlocks) {
+    Context context = new Context(this, pass, importedTypes, staticImports, alwaysQualify,
+        indent, textBlocks);
+    String key = pass + ":" + fileName;
+    expunge();
+    ContextReference reference = contexts.get(key);
+    Context previous = reference != null ? reference.get() : null;
+    if (context.equals(previous)) return previous;
+    contexts.put(key, new ContextReference(key, context, expiredContexts));
+    return context;
+  }
+
+  synchronized Fragment get(Context context, Object member, Scope scope) {
+    expunge();
+    Fragment[] memberFragments = fragments.get(new MemberKey(member, null));
+    Fragment fragment = memberFragments != null ? memberFragments[context.pass] : null;
+    if (fragment != null && fragment.context == context && fragment.scope.sameAs(scope)) {
+      hitCount++;
+      return fragment;
+    }
+    missCount++;
+    return null;
+  }
+
+  synchronized void put(Context context, Object member, Scope scope, String text,
+      List<Object> events, int typeLookupCount, int lineWrapCount) {
+    MemberKey key = new MemberKey(member, expired);
+    Fragment[] memberFragments = fragments.computeIfAbsent(key, k -> new Fragment[2]);
+    memberFragments[context.pass] = new Fragment(context, scope, text, events.toArray(),
+        typeLookupCount, lineWrapCount);
+  }
+
+  private void expunge() {
+    for (Reference<?> reference; (reference = expired.poll()) != null; ) {
+      fragments.remove(reference);
+    }
+    for (Reference<?> reference; (reference = expiredContexts.poll()) != null; ) {
+      ContextReference contextReference = (ContextReference) reference;
+      contexts.remove(contextReference.key, contextReference);
+    }
+  }
+
+  /** Everything that affects the rendering of all members of a file in one pass. */
+  static final class Context {
+    final RenderCache cache;
+    final int pass;
+    private final Map<String, ClassName> importedTypes;
+    private final Set<String> staticImports;
+    private final Set<String> alwaysQualify;
+    private final String indent;
+    private final boolean textBlocks;
+
+    private Context(RenderCache cache, int pass, Map<String, ClassName> importedTypes,
+        Set<String> staticImports, Set<String> alwaysQualify, String indent,
+        boolean textBlocks) {
+      this.cache = cache;
+      this.pass = pass;
+      this.importedTypes = importedTypes;
+      this.staticImports = staticImports;
+      this.alwaysQualify = alwaysQualify;
+      this.indent = indent;
+      this.textBlocks = textBlocks;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Context)) return false;
+      Context that = (Context) o;
+      return pass == that.pass
+          && textBlocks == that.textBlocks
+          && indent.equals(that.indent)
+          && importedTypes.equals(that.importedTypes)
+          && staticImports.equals(that.staticImports)
+          && alwaysQualify.equals(that.alwaysQualify);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(pass, importedTypes, staticImports, alwaysQualify, indent, textBlocks);
+    }
+  }
+
+  /**
+   * The enclosing types of a member and the type variables and indentation in effect. Two scopes
+   * are the same if members render identically in both.
+   */
+  static final class Scope {
+    final Scope parent;
+    private final TypeSpec.Kind kind;
+    private final String name;
+    private final Set<String> nestedTypesSimpleNames;
+    private final List<String> typeVariables;
+    private final int indentLevel;
+
+    /** The last scope found to be the same as this one. */
+    private Scope same;
+
+    Scope(Scope parent, TypeSpec.Kind kind, String name, Set<String> nestedTypesSimpleNames,
+        List<String> typeVariables, int indentLevel) {
+      this.parent = parent;
+      this.kind = kind;
+      this.name = name;
+      this.nestedTypesSimpleNames = nestedTypesSimpleNames;
+      this.typeVariables = typeVariables;
+      this.indentLevel = indentLevel;
+    }
+
+    boolean sameAs(Scope other) {
+      if (this == other || same == other) return true;
+      if (other == null) return false;
+      boolean result = kind == other.kind
+          && indentLevel == other.indentLevel
+          && Objects.equals(name, other.name)
+          && typeVariables.equals(other.typeVariables)
+          && (nestedTypesSimpleNames == other.nestedTypesSimpleNames
+              || nestedTypesSimpleNames.equals(other.nestedTypesSimpleNames))
+          && (parent == null ? other.parent == null : parent.sameAs(other.parent));
+      if (result) same = other;
+      return result;
+    }
+  }
+
+  /**
+   * The rendered source of a member and the side effects of rendering it: the {@link ClassName}s
+   * it offered for import, the simple names it referenced, and the counts reported to a {@link
+   * RenderListener}.
+   */
+  static final class Fragment {
+    final Context context;
+    final Scope scope;
+    final String text;
+    final Object[] events;
+    final int typeLookupCount;
+    final int lineWrapCount;
+
+    Fragment(Context context, Scope scope, String text, Object[] events, int typeLookupCount,
+        int lineWrapCount) {
+      this.context = context;
+      this.scope = scope;
+      this.text = text;
+      this.events = events;
+      this.typeLookupCount = typeLookupCount;
+      this.lineWrapCount = lineWrapCount;
+    }
+  }
+
+  /** A file pass's context, held until no fragment refers to it. */
+  private static final class ContextReference extends WeakReference<Context> {
+    final String key;
+
+    ContextReference(String key, Context context, ReferenceQueue<Context> queue) {
+      super(context, queue);
+      this.key = key;
+    }
+  }
+
+  /** Compares members by identity without keeping them reachable. */
+  private static final class MemberKey extends WeakReference<Object> {
+    private final int hashCode;
+
+    MemberKey(Object member, ReferenceQueue<Object> queue) {
+      super(member, queue);
+      this.hashCode = System.identityHashCode(member);
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof MemberKey)) return false;
+      Object member = get();
+      return member != null && member == ((MemberKey) o).get();
+    }
+
+    @Override public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+/**
+ * Receives timings and counters as {@link JavaFile}s are rendered. Install one on a file with
+ * {@link JavaFile.Builder#renderListener} or for every file with {@link
+ * JavaFile#setDefaultRenderListener}. Rendering takes no timings and allocates no counters when
+ * no listener is installed.
+ *
+ * <p>A file is rendered in two passes: the {@linkplain Pass#IMPORTS imports pass} renders it into
+ * nothing to find the types it can import, then the {@linkplain Pass#OUTPUT output pass} renders it
+ * again with those imports. Listeners are called on the rendering thread and must be thread-safe
+ * if files are rendered concurrently.
+ */
+public interface RenderListener {
+  /**
+   * Called after {@code member}, a {@link FieldSpec}, {@link MethodSpec} or nested {@link
+   * TypeSpec}, was rendered or copied from the file's {@link RenderCache}. The time of a nested
+   * type includes the time of its members.
+   */
+  default void memberRendered(JavaFile file, Pass pass, Object member, long nanos) {
+  }
+
+  /** Called after both passes of rendering {@code file}. */
+  default void fileRendered(JavaFile file, Statistics statistics) {
+  }
+
+  enum Pass {
+    /** Renders the file without output to collect the types to import. */
+    IMPORTS,
+    /** Renders the file with its imports. */
+    OUTPUT
+  }
+
+  /**
+   * Measurements of rendering one file. The counts describe the rendered file and are the same
+   * whether or not its members were copied from a {@link RenderCache}: a copied member
+   * contributes the type lookups and line wraps of the render it was copied from.
+   */
+  final class Statistics {
+    /** The time spent collecting imports, in nanoseconds. */
+    public final long importPassNanos;
+    /** The time spent rendering the output, in nanoseconds. */
+    public final long outputPassNanos;
+    /** The number of characters written. */
+    public final long characterCount;
+    /** The number of lines written. */
+    public final int lineCount;
+    /** The number of class names resolved for {@code $T} and other type references. */
+    public final int typeLookupCount;
+    /** The number of distinct types considered for import. */
+    public final int importCandidateCount;
+    /**
+     * The number of import statements written for types. Types in {@code java.lang} omitted
+     * because of {@link JavaFile.Builder#skipJavaLangImports} and static imports are not counted.
+     */
+    public final int importCount;
+    /** The number of lines the line wrapper broke because they exceeded the column limit. */
+    public final int lineWrapCount;
+
+    Statistics(long importPassNanos, long outputPassNanos, long characterCount, int lineCount,
+        int typeLookupCount, int importCandidateCount, int importCount, int lineWrapCount) {
+      this.importPassNanos = importPassNanos;
+      this.outputPassNanos = outputPassNanos;
+      this.characterCount = characterCount;
+      this.lineCount = lineCount;
+      this.typeLookupCount = typeLookupCount;
+      this.importCandidateCount = importCandidateCount;
+      this.importCount = importCount;
+      this.lineWrapCount = lineWrapCount;
+    }
+
+    @Override public String toString() {
+      return "Statistics{importPassNanos=" + importPassNanos
+          + ", outputPassNanos=" + outputPassNanos
+          + ", characters=" + characterCount
+          + ", lines=" + lineCount
+          + ", typeLookups=" + typeLookupCount
+          + ", importCandidates=" + importCandidateCount
+          + ", imports=" + importCount
+          + ", lineWraps=" + lineWrapCount + "}";
+    }
+  }
+}
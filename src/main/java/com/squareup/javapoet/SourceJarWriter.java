@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static com.squareup.javapoet.Util.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes Java files as entries of a source jar, like {@code com/example/Foo.java}, instead of as
+ * individual files. Tools that read source jars can consume the output directly, and generating
+ * many small files costs one write per file rather than a directory and file creation each.
+ *
+ * <p>Entries are written in the order they are given and all share a fixed timestamp, so the same
+ * files always produce the same jar. {@link #write(JavaFile)} may be called from any number of
+ * threads; files are rendered by the calling thread and appended one at a time. Use {@link
+ * #writeAll(Iterable, Executor)} to render files in parallel while keeping their order.
+ */
+public final class SourceJarWriter implements Closeable {
+  /** How entries are stored. */
+  public enum Compression {
+    /** Entries are stored uncompressed. This is fastest to write and read. */
+    STORED,
+    /** Entries are compressed with deflate. */
+    DEFLATED
+  }
+
+  /** The earliest time a zip entry can hold, used for every entry to make jars reproducible. */
+  private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+  /** The most files {@link #writeAll} renders ahead of the entry being written. */
+  private static final int MAX_PENDING = 256;
+
+  private final ZipOutputStream zip;
+  private final Compression compression;
+
+  private SourceJarWriter(OutputStream out, Compression compression) {
+    this.zip = new ZipOutputStream(out, UTF_8);
+    this.compression = compression;
+  }
+
+  /** Returns a writer that creates or replaces the jar at {@code jar}. */
+  public static SourceJarWriter open(Path jar, Compression compression) throws IOException {
+    checkNotNull(jar, "jar == null");
+    checkNotNull(compression, "compression == null");
+    return new SourceJarWriter(new BufferedOutputStream(Files.newOutputStream(jar)), compression);
+  }
+
+  /** Returns a writer that writes a jar to {@code out}. Closing the writer closes {@code out}. */
+  public static SourceJarWriter open(OutputStream out, Compression compression) {
+    checkNotNull(out, "out == null");
+    checkNotNull(compression, "compression == null");
+    return new SourceJarWriter(out, compression);
+  }
+
+  /** Renders {@code javaFile} as UTF-8 and appends it to the jar. */
+  public void write(JavaFile javaFile) throws IOException {
+    checkNotNull(javaFile, "javaFile == null");
+    put(javaFile, render(javaFile));
+  }
+
+  /**
+   * Renders {@code javaFiles} on {@code renderExecutor} and appends them to the jar in iteration
+   * order. A bounded number of files are rendered ahead of the one being written. If a file fails
+   * to render or to be written, the files queued behind it are not rendered.
+   */
+  public void writeAll(Iterable<JavaFile> javaFiles, Executor renderExecutor)
+      throws IOException {
+    checkNotNull(javaFiles, "javaFiles == null");
+    checkNotNull(renderExecutor, "renderExecutor == null");
+    Deque<JavaFile> files = new ArrayDeque<>();
+    Deque<CompletableFuture<byte[]>> rendered = new ArrayDeque<>();
+    boolean success = false;
+    try {
+      for (JavaFile javaFile : javaFiles) {
+        checkNotNull(javaFile, "javaFile == null");
+        files.add(javaFile);
+        rendered.add(CompletableFuture.supplyAsync(() -> render(javaFile), renderExecutor));
+        if (rendered.size() == MAX_PENDING) {
+          put(files.remove(), join(rendered.remove()));
+        }
+      }
+      while (!rendered.isEmpty()) {
+        put(files.remove(), join(rendered.remove()));
+      }
+      success = true;
+    } finally {
+      if (!success) {
+        // Renders that haven't started yet see the cancellation and don't run.
+        for (CompletableFuture<byte[]> future : rendered) {
+          future.cancel(false);
+        }
+      }
+    }
+  }
+
+  private static byte[] render(JavaFile javaFile) {
+    return javaFile.toString().getBytes(UTF_8);
+  }
+
+  private static byte[] join(CompletableFuture<byte[]> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error) throw (Error) e.getCause();
+      throw e;
+    }
+  }
+
+  private synchronized void put(JavaFile javaFile, byte[] bytes) throws IOException {
+    Object event = JfrEvents.beginWrite();
+    String entryName = javaFile.relativePath();
+    ZipEntry entry = new ZipEntry(entryName);
+    entry.setTimeLocal(ENTRY_TIME);
+    if (compression == Compression.STORED) {
+      CRC32 crc = new CRC32();
+      crc.update(bytes);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(bytes.length);
+      entry.setCompressedSize(bytes.length);
+      entry.setCrc(crc.getValue());
+    }
+    zip.putNextEntry(entry);
+    zip.write(bytes);
+    zip.closeEntry();
+    if (event != null) {
+      JfrEvents.endWrite(event, javaFile.fileName(), entryName, bytes.length);
+    }
+  }
+
+  /** Finishes the jar and closes the underlying stream. */
+  @Override public synchronized void close() throws IOException {
+    zip.close();
+  }
+}
@@ -49,7 +49,7 @@ import java.util.Map;
  * lists are collections, or even that it accepts a single type parameter.
  *
  * <p>Instances of this class are immutable value objects that implement {@code equals()} and {@code
- * hashCode()} properly.
+ * hashCode()} properly. They may be shared and rendered by any number of threads.
  *
  * <h3>Referencing existing types</h3>
  *
@@ -92,7 +92,10 @@ public class TypeName {
   private final String keyword;
   public final List<AnnotationSpec> annotations;
 
-  /** Lazily-initialized toString of this type name. */
+  /**
+   * Lazily-initialized toString of this type name. Strings are immutable, so threads that race to
+   * initialize it at worst compute it more than once.
+   */
   private String cachedString;
 
   private TypeName(String keyword) {
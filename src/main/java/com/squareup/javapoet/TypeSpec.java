@@ -38,6 +38,7 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.NoType;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
 
 import static com.squareup.javapoet.Util.checkArgument;
 import static com.squareup.javapoet.Util.checkNotNull;
@@ -72,7 +73,7 @@ public final class TypeSpec {
     this.anonymousTypeArguments = builder.anonymousTypeArguments;
     this.javadoc = builder.javadoc.build();
     this.annotations = Util.immutableList(builder.annotations);
-    this.modifiers = Util.immutableSet(builder.modifiers);
+    this.modifiers = Util.immutableModifiers(builder.modifiers);
     this.typeVariables = Util.immutableList(builder.typeVariables);
     this.superclass = builder.superclass;
     this.superinterfaces = Util.immutableList(builder.superinterfaces);
@@ -86,41 +87,12 @@ public final class TypeSpec {
     this.alwaysQualifiedNames = Util.immutableSet(builder.alwaysQualifiedNames);
 
     nestedTypesSimpleNames = new HashSet<>(builder.typeSpecs.size());
-    List<Element> originatingElementsMutable = new ArrayList<>();
-    originatingElementsMutable.addAll(builder.originatingElements);
     for (TypeSpec typeSpec : builder.typeSpecs) {
       nestedTypesSimpleNames.add(typeSpec.name);
-      originatingElementsMutable.addAll(typeSpec.originatingElements);
     }
 
-    this.originatingElements = Util.immutableList(originatingElementsMutable);
-  }
-
-  /**
-   * Creates a dummy type spec for type-resolution only (in CodeWriter)
-   * while emitting the type declaration but before entering the type body.
-   */
-  private TypeSpec(TypeSpec type) {
-    assert type.anonymousTypeArguments == null;
-    this.kind = type.kind;
-    this.name = type.name;
-    this.anonymousTypeArguments = null;
-    this.javadoc = type.javadoc;
-    this.annotations = Collections.emptyList();
-    this.modifiers = Collections.emptySet();
-    this.typeVariables = Collections.emptyList();
-    this.superclass = null;
-    this.superinterfaces = Collections.emptyList();
-    this.permits = Collections.emptyList();
-    this.enumConstants = Collections.emptyMap();
-    this.fieldSpecs = Collections.emptyList();
-    this.staticBlock = type.staticBlock;
-    this.initializerBlock = type.initializerBlock;
-    this.methodSpecs = Collections.emptyList();
-    this.typeSpecs = Collections.emptyList();
-    this.originatingElements = Collections.emptyList();
-    this.nestedTypesSimpleNames = Collections.emptySet();
-    this.alwaysQualifiedNames = Collections.emptySet();
+    this.originatingElements = OriginatingElements.create(builder.retainedOriginatingElements,
+        builder.originatingElements, builder.originatingElementRetention, typeSpecs);
   }
 
   public boolean hasModifier(Modifier modifier) {
@@ -191,7 +163,10 @@ public final class TypeSpec {
     builder.typeSpecs.addAll(typeSpecs);
     builder.initializerBlock.add(initializerBlock);
     builder.staticBlock.add(staticBlock);
-    builder.originatingElements.addAll(originatingElements);
+    OriginatingElements elements = (OriginatingElements) originatingElements;
+    builder.originatingElementRetention = elements.retention();
+    builder.originatingElements.addAll(elements.declaredElements());
+    builder.retainedOriginatingElements = elements.declaredDescriptors();
     builder.alwaysQualifiedNames.addAll(alwaysQualifiedNames);
     return builder;
   }
@@ -223,8 +198,8 @@ public final class TypeSpec {
         codeWriter.emit(anonymousTypeArguments);
         codeWriter.emit(") {\n");
       } else {
-        // Push an empty type (specifically without nested types) for type-resolution.
-        codeWriter.pushType(new TypeSpec(this));
+        // Nested types aren't in scope until the body.
+        codeWriter.pushTypeHeader(this);
 
         codeWriter.emitJavadoc(javadoc);
         codeWriter.emitAnnotations(annotations, false);
@@ -254,11 +229,11 @@ public final class TypeSpec {
 
             if (fieldSpec.hasModifier(Modifier.STATIC))
               continue;
-            ParameterSpec parameter = ParameterSpec.builder(fieldSpec.type, fieldSpec.name).build();
             if (!firstParameter)
               codeWriter.emit(",").emitWrappingSpace();
             codeWriter.emitAnnotations(fieldSpec.annotations, true);
-            parameter.emit(codeWriter, !(i < fieldSpecsLength));
+            fieldSpec.type.emit(codeWriter);
+            codeWriter.emit(" $L", fieldSpec.name);
             firstParameter = false;
           }
           codeWriter.emit(")");
@@ -328,7 +303,8 @@ public final class TypeSpec {
       for (FieldSpec fieldSpec : fieldSpecs) {
         if (!fieldSpec.hasModifier(Modifier.STATIC)) continue;
         if (!firstMember) codeWriter.emit("\n");
-        fieldSpec.emit(codeWriter, kind.implicitFieldModifiers);
+        codeWriter.emitMember(fieldSpec,
+            () -> fieldSpec.emit(codeWriter, kind.implicitFieldModifiers));
         firstMember = false;
       }
 
@@ -346,7 +322,8 @@ public final class TypeSpec {
             continue;
           if (!firstMember)
             codeWriter.emit("\n");
-          fieldSpec.emit(codeWriter, kind.implicitFieldModifiers);
+          codeWriter.emitMember(fieldSpec,
+              () -> fieldSpec.emit(codeWriter, kind.implicitFieldModifiers));
           firstMember = false;
         }
       }
@@ -362,7 +339,8 @@ public final class TypeSpec {
       for (MethodSpec methodSpec : methodSpecs) {
         if (!methodSpec.isConstructor()) continue;
         if (!firstMember) codeWriter.emit("\n");
-        methodSpec.emit(codeWriter, name, kind.implicitMethodModifiers);
+        codeWriter.emitMember(methodSpec,
+            () -> methodSpec.emit(codeWriter, name, kind.implicitMethodModifiers));
         firstMember = false;
       }
 
@@ -370,14 +348,16 @@ public final class TypeSpec {
       for (MethodSpec methodSpec : methodSpecs) {
         if (methodSpec.isConstructor()) continue;
         if (!firstMember) codeWriter.emit("\n");
-        methodSpec.emit(codeWriter, name, kind.implicitMethodModifiers);
+        codeWriter.emitMember(methodSpec,
+            () -> methodSpec.emit(codeWriter, name, kind.implicitMethodModifiers));
         firstMember = false;
       }
 
       // Types.
       for (TypeSpec typeSpec : typeSpecs) {
         if (!firstMember) codeWriter.emit("\n");
-        typeSpec.emit(codeWriter, null, kind.implicitTypeModifiers);
+        codeWriter.emitMember(typeSpec,
+            () -> typeSpec.emit(codeWriter, null, kind.implicitTypeModifiers));
         firstMember = false;
       }
 
@@ -416,6 +396,29 @@ public final class TypeSpec {
     }
   }
 
+  /** How a type holds on to its originating elements once it is built. */
+  public enum ElementRetention {
+    /** Hold the elements themselves. This is the default. */
+    STRONG,
+
+    /**
+     * Hold weak references to the elements so that caching a built type doesn't keep the
+     * compiler's symbols and trees of earlier rounds alive. Elements that have been collected are
+     * left out of {@link TypeSpec#originatingElements}.
+     */
+    WEAK,
+
+    /**
+     * Hold the qualified name of each element's type or package, and look it up again when the
+     * file is written with {@link JavaFile#writeTo(javax.annotation.processing.Filer, Elements)}.
+     * A member is recorded as its enclosing type. Descriptors are left out of {@link
+     * TypeSpec#originatingElements} and of the {@link Builder#originatingElements} of a {@link
+     * TypeSpec#toBuilder() builder} created from the type, which keeps them as descriptors
+     * whatever retention it is given.
+     */
+    DESCRIPTOR
+  }
+
   public enum Kind {
     CLASS(
         Collections.emptySet(),
@@ -427,10 +430,10 @@ public final class TypeSpec {
         Collections.emptySet()),
 
     INTERFACE(
-        Util.immutableSet(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)),
-        Util.immutableSet(Arrays.asList(Modifier.PUBLIC, Modifier.ABSTRACT)),
-        Util.immutableSet(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC)),
-        Util.immutableSet(Collections.singletonList(Modifier.STATIC))),
+        Util.immutableModifiers(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)),
+        Util.immutableModifiers(Arrays.asList(Modifier.PUBLIC, Modifier.ABSTRACT)),
+        Util.immutableModifiers(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC)),
+        Util.immutableModifiers(Collections.singletonList(Modifier.STATIC))),
 
     ENUM(
         Collections.emptySet(),
@@ -439,10 +442,10 @@ public final class TypeSpec {
         Collections.singleton(Modifier.STATIC)),
 
     ANNOTATION(
-        Util.immutableSet(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)),
-        Util.immutableSet(Arrays.asList(Modifier.PUBLIC, Modifier.ABSTRACT)),
-        Util.immutableSet(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC)),
-        Util.immutableSet(Collections.singletonList(Modifier.STATIC)));
+        Util.immutableModifiers(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)),
+        Util.immutableModifiers(Arrays.asList(Modifier.PUBLIC, Modifier.ABSTRACT)),
+        Util.immutableModifiers(Arrays.asList(Modifier.PUBLIC, Modifier.STATIC)),
+        Util.immutableModifiers(Collections.singletonList(Modifier.STATIC)));
 
     private final Set<Modifier> implicitFieldModifiers;
     private final Set<Modifier> implicitMethodModifiers;
@@ -471,16 +474,19 @@ public final class TypeSpec {
     private final CodeBlock.Builder initializerBlock = CodeBlock.builder();
 
     public final Map<String, TypeSpec> enumConstants = new LinkedHashMap<>();
-    public final List<AnnotationSpec> annotations = new ArrayList<>();
+    public final List<AnnotationSpec> annotations = new PersistentVector.MutableList<>();
     public final List<Modifier> modifiers = new ArrayList<>();
-    public final List<TypeVariableName> typeVariables = new ArrayList<>();
-    public final List<TypeName> superinterfaces = new ArrayList<>();
-    public final List<TypeName> permits = new ArrayList<>();
-    public final List<FieldSpec> fieldSpecs = new ArrayList<>();
-    public final List<MethodSpec> methodSpecs = new ArrayList<>();
-    public final List<TypeSpec> typeSpecs = new ArrayList<>();
-    public final List<Element> originatingElements = new ArrayList<>();
+    public final List<TypeVariableName> typeVariables = new PersistentVector.MutableList<>();
+    public final List<TypeName> superinterfaces = new PersistentVector.MutableList<>();
+    public final List<TypeName> permits = new PersistentVector.MutableList<>();
+    public final List<FieldSpec> fieldSpecs = new PersistentVector.MutableList<>();
+    public final List<MethodSpec> methodSpecs = new PersistentVector.MutableList<>();
+    public final List<TypeSpec> typeSpecs = new PersistentVector.MutableList<>();
+    public final List<Element> originatingElements = new PersistentVector.MutableList<>();
     public final Set<String> alwaysQualifiedNames = new LinkedHashSet<>();
+    private ElementRetention originatingElementRetention = ElementRetention.STRONG;
+    /** Elements held by descriptor by the type this builder was created from. */
+    private List<Object> retainedOriginatingElements = Collections.emptyList();
 
     private Builder(Kind kind, String name,
         CodeBlock anonymousTypeArguments) {
@@ -739,6 +745,17 @@ public final class TypeSpec {
       return this;
     }
 
+    /**
+     * Sets how the built type holds on to its originating elements. Annotation processors that
+     * cache built types across rounds should use {@link ElementRetention#WEAK} or {@link
+     * ElementRetention#DESCRIPTOR}. This applies to this type's elements only, not to those of
+     * nested types.
+     */
+    public Builder originatingElementRetention(ElementRetention retention) {
+      this.originatingElementRetention = checkNotNull(retention, "retention == null");
+      return this;
+    }
+
     public Builder alwaysQualify(String... simpleNames) {
       checkArgument(simpleNames != null, "simpleNames == null");
       for (String name : simpleNames) {
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -34,6 +35,32 @@ import static java.lang.Character.isISOControl;
  * bring their own version of Guava.
  */
 final class Util {
+  /**
+   * The longest string constant a class file can hold: the constant pool stores strings in
+   * modified UTF-8 with an unsigned 16-bit length.
+   */
+  static final int MAX_STRING_CONSTANT_LENGTH = 65535;
+
+  /** Character literals without single quotes for each ASCII character. */
+  private static final String[] ASCII_CHARACTER_LITERALS = new String[128];
+
+  /** Escape sequences in string literals for each ASCII character, or null if none is needed. */
+  private static final String[] ASCII_STRING_ESCAPES = new String[128];
+
+  static {
+    for (char c = 0; c < ASCII_CHARACTER_LITERALS.length; c++) {
+      String literal = escapeCharacter(c);
+      ASCII_CHARACTER_LITERALS[c] = literal;
+      if (c == '\"') {
+        // double quotes must be escaped
+        ASCII_STRING_ESCAPES[c] = "\\\"";
+      } else if (c != '\'' && (literal.length() != 1 || literal.charAt(0) != c)) {
+        // single quotes must not be escaped
+        ASCII_STRING_ESCAPES[c] = literal;
+      }
+    }
+  }
+
   private Util() {
   }
 
@@ -64,9 +91,22 @@ final class Util {
   }
 
   static <T> List<T> immutableList(Collection<T> collection) {
+    if (collection instanceof PersistentVector) {
+      return (PersistentVector<T>) collection;
+    }
+    if (collection instanceof PersistentVector.MutableList) {
+      return ((PersistentVector.MutableList<T>) collection).snapshot();
+    }
     return Collections.unmodifiableList(new ArrayList<>(collection));
   }
 
+  /** Returns an immutable {@link EnumSet} copy of {@code modifiers}, in declaration order. */
+  static Set<Modifier> immutableModifiers(Collection<Modifier> modifiers) {
+    if (modifiers.isEmpty()) return Collections.emptySet();
+    checkArgument(!modifiers.contains(null), "modifiers contain null");
+    return Collections.unmodifiableSet(EnumSet.copyOf(modifiers));
+  }
+
   static <T> Set<T> immutableSet(Collection<T> set) {
     return Collections.unmodifiableSet(new LinkedHashSet<>(set));
   }
@@ -88,6 +128,12 @@ final class Util {
   }
 
   static String characterLiteralWithoutSingleQuotes(char c) {
+    return c < ASCII_CHARACTER_LITERALS.length
+        ? ASCII_CHARACTER_LITERALS[c]
+        : escapeCharacter(c);
+  }
+
+  private static String escapeCharacter(char c) {
     // see https://docs.oracle.com/javase/specs/jls/se7/html/jls-3.html#jls-3.10.6
     switch (c) {
       case '\b': return "\\b"; /* \u0008: backspace (BS) */
@@ -107,26 +153,121 @@ final class Util {
   static String stringLiteralWithDoubleQuotes(String value, String indent) {
     StringBuilder result = new StringBuilder(value.length() + 2);
     result.append('"');
+    // Characters that need no escaping are copied in bulk, one run at a time.
+    int runStart = 0;
     for (int i = 0; i < value.length(); i++) {
       char c = value.charAt(i);
-      // trivial case: single quote must not be escaped
-      if (c == '\'') {
-        result.append("'");
+      String escape = c < ASCII_STRING_ESCAPES.length
+          ? ASCII_STRING_ESCAPES[c]
+          : isISOControl(c) ? escapeCharacter(c) : null;
+      if (escape == null) continue;
+      result.append(value, runStart, i).append(escape);
+      runStart = i + 1;
+      // need to append indent after linefeed?
+      if (c == '\n' && i + 1 < value.length()) {
+        result.append("\"\n").append(indent).append(indent).append("+ \"");
+      }
+    }
+    result.append(value, runStart, value.length());
+    result.append('"');
+    return result.toString();
+  }
+
+  /**
+   * Returns the text block representing {@code value}, including the opening and closing
+   * delimiters. Like the continuation lines of {@link #stringLiteralWithDoubleQuotes}, content
+   * lines and the closing delimiter are prefixed with a double {@code indent}; javac strips that
+   * prefix as incidental whitespace.
+   */
+  static String textBlockWithTripleQuotes(String value, String indent) {
+    StringBuilder result = new StringBuilder(value.length() + 16);
+    result.append("\"\"\"\n");
+    boolean lineStart = true;
+    int consecutiveQuotes = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\n') {
+        result.append('\n');
+        lineStart = true;
+        consecutiveQuotes = 0;
         continue;
       }
-      // trivial case: double quotes must be escaped
+      // don't indent empty lines: blank lines don't count towards incidental whitespace
+      if (lineStart) {
+        result.append(indent).append(indent);
+        lineStart = false;
+      }
       if (c == '\"') {
-        result.append("\\\"");
+        // escape every third quote so the content never contains a closing delimiter
+        if (consecutiveQuotes == 2) {
+          result.append("\\\"");
+          consecutiveQuotes = 0;
+        } else {
+          result.append('"');
+          consecutiveQuotes++;
+        }
         continue;
       }
-      // default case: just let character literal do its work
-      result.append(characterLiteralWithoutSingleQuotes(c));
-      // need to append indent after linefeed?
-      if (c == '\n' && i + 1 < value.length()) {
-        result.append("\"\n").append(indent).append(indent).append("+ \"");
+      consecutiveQuotes = 0;
+      if (c == '\'') {
+        result.append('\'');
+      } else if (c == ' ' && (i + 1 == value.length() || value.charAt(i + 1) == '\n')) {
+        // javac strips trailing spaces from each line of a text block
+        result.append("\\s");
+      } else {
+        result.append(characterLiteralWithoutSingleQuotes(c));
       }
     }
-    result.append('"');
+    if (!lineStart) {
+      // no trailing line break: join the last line with the closing delimiter's line
+      result.append("\\\n");
+    }
+    result.append(indent).append(indent).append("\"\"\"");
     return result.toString();
   }
+
+  /**
+   * Returns the number of bytes {@code value} occupies in the modified UTF-8 encoding used by the
+   * class file constant pool. Unlike standard UTF-8, the NUL character takes two bytes and each
+   * half of a surrogate pair takes three.
+   */
+  static int modifiedUtf8Length(String value) {
+    int length = value.length();
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 0x800) {
+        length += 2;
+      } else if (c >= 0x80 || c == 0) {
+        length += 1;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Splits {@code value} into chunks whose modified UTF-8 length is at most {@code limit} bytes.
+   * Surrogate pairs are never separated.
+   */
+  static List<String> constantPoolChunks(String value, int limit) {
+    checkArgument(limit >= 6, "limit < 6: %s", limit);
+    List<String> result = new ArrayList<>();
+    int start = 0;
+    int chunkLength = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      int charLength = c >= 0x800 ? 3 : (c >= 0x80 || c == 0) ? 2 : 1;
+      if (chunkLength + charLength > limit) {
+        // Move a dangling high surrogate into the next chunk to keep the pair together.
+        boolean splitsPair = Character.isLowSurrogate(c)
+            && Character.isHighSurrogate(value.charAt(i - 1));
+        int end = splitsPair ? i - 1 : i;
+        result.add(value.substring(start, end));
+        start = end;
+        chunkLength = splitsPair ? 3 : 0;
+      }
+      chunkLength += charLength;
+    }
+    result.add(value.substring(start));
+    return result;
+  }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Guards the bytes allocated by hot rendering paths. Each workload is warmed up, then measured
+ * several times with the thread's allocation counter; the smallest measurement must stay within
+ * the workload's budget. Maven runs this class in a JVM of its own: after other tests the JIT
+ * compiles the same code differently, and escape analysis removes fewer allocations.
+ *
+ * <p>Budgets are about 25% above the measured allocations. When a change reduces allocations,
+ * lower the budget so that the gain can't be silently lost. Raise a budget only for a change that
+ * is worth the extra allocation.
+ */
+public final class AllocationBudgetTest {
+  /** Rendering {@link #referenceFile()} with {@code toString()}. */
+  private static final long RENDER_REFERENCE_FILE_BUDGET = 1_150_000L;
+  /** Building 10,000 code blocks with {@code CodeBlock.of()}. */
+  private static final long BUILD_CODE_BLOCKS_BUDGET = 20_700_000L;
+  /** Resolving 100,000 {@code $T} names in a code writer. */
+  private static final long RESOLVE_NAMES_BUDGET = 20_000L;
+
+  private static final int WARMUP_RUNS = 20;
+  private static final int MEASURED_RUNS = 5;
+
+  private com.sun.management.ThreadMXBean threadMXBean;
+
+  @Before public void setUp() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue("thread allocation counters are unsupported",
+        bean instanceof com.sun.management.ThreadMXBean);
+    threadMXBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue("thread allocation counters are unsupported",
+        threadMXBean.isThreadAllocatedMemorySupported());
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @Test public void renderReferenceFile() throws Exception {
+    JavaFile file = referenceFile();
+    assertWithinBudget("render reference file", RENDER_REFERENCE_FILE_BUDGET,
+        () -> file.toString());
+  }
+
+  @Test public void buildCodeBlocks() throws Exception {
+    ClassName list = ClassName.get(List.class);
+    assertWithinBudget("build 10k code blocks", BUILD_CODE_BLOCKS_BUDGET, () -> {
+      Object last = null;
+      for (int i = 0; i < 10_000; i++) {
+        last = CodeBlock.of("$T<$T> values = new $T<>($L)", list, String.class, ArrayList.class, i);
+      }
+      return last;
+    });
+  }
+
+  @Test public void resolveNames() throws Exception {
+    List<ClassName> names = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      names.add(ClassName.get("com.squareup.tacos" + (i % 10), "Taco" + i));
+    }
+    assertWithinBudget("resolve 100k names", RESOLVE_NAMES_BUDGET, () -> {
+      CodeWriter codeWriter = new CodeWriter(new StringBuilder());
+      codeWriter.pushPackage("com.squareup.tacos0");
+      String last = null;
+      for (int i = 0; i < 100_000; i++) {
+        last = codeWriter.lookupName(names.get(i % names.size()));
+      }
+      codeWriter.popPackage();
+      return last;
+    });
+  }
+
+  /** A file with imports, nested types, generics, string literals and wrapped statements. */
+  static JavaFile referenceFile() {
+    ClassName taco = ClassName.get("com.squareup.tacos", "Taco");
+    ClassName topping = ClassName.get("com.squareup.tacos.toppings", "Topping");
+    TypeName toppings = ParameterizedTypeName.get(ClassName.get(List.class), topping);
+    TypeSpec.Builder shop = TypeSpec.classBuilder("TacoShop")
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addJavadoc("Sells {@link $T}s.\n", taco);
+    for (int i = 0; i < 20; i++) {
+      shop.addField(FieldSpec.builder(toppings, "toppings" + i, Modifier.PRIVATE, Modifier.FINAL)
+          .initializer("new $T<>()", ArrayList.class)
+          .build());
+      shop.addMethod(MethodSpec.methodBuilder("order" + i)
+          .addModifiers(Modifier.PUBLIC)
+          .returns(taco)
+          .addParameter(String.class, "customer")
+          .addParameter(toppings, "extras")
+          .addStatement("$T.out.println($S +$W customer +$W $S +$W extras.size())", System.class,
+              "Preparing an order for ", " with this many extra toppings: ")
+          .addStatement("toppings$L.addAll(extras)", i)
+          .addStatement("return new $T(customer, toppings$L)", taco, i)
+          .build());
+    }
+    shop.addType(TypeSpec.classBuilder("Receipt")
+        .addModifiers(Modifier.STATIC)
+        .addField(taco, "taco")
+        .addField(long.class, "cents")
+        .build());
+    return JavaFile.builder("com.squareup.tacos.shop", shop.build()).build();
+  }
+
+  private void assertWithinBudget(String workload, long budget, Workload run) throws Exception {
+    Object sink = null;
+    for (int i = 0; i < WARMUP_RUNS; i++) {
+      sink = run.run();
+    }
+    long threadId = Thread.currentThread().getId();
+    long smallest = Long.MAX_VALUE;
+    for (int i = 0; i < MEASURED_RUNS; i++) {
+      long before = threadMXBean.getThreadAllocatedBytes(threadId);
+      sink = run.run();
+      long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+      smallest = Math.min(smallest, allocated);
+    }
+    assertWithMessage("%s allocated %s bytes; budget is %s bytes", workload, smallest, budget)
+        .that(smallest)
+        .isAtMost(budget);
+    assertWithMessage("result").that(sink).isNotNull();
+  }
+
+  private interface Workload {
+    Object run() throws Exception;
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+public final class AtomicSourceWriterTest {
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  private static JavaFile javaFile(String packageName, String name) {
+    return JavaFile.builder(packageName, TypeSpec.classBuilder(name)
+        .addField(String.class, "name")
+        .build()).build();
+  }
+
+  /** Returns the names of every file under the temporary folder. */
+  private List<String> files() throws IOException {
+    Path root = tmp.getRoot().toPath();
+    try (Stream<Path> paths = Files.walk(root)) {
+      return paths.filter(Files::isRegularFile)
+          .map(path -> root.relativize(path).toString().replace('\\', '/'))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  @Test public void writeWithoutSync() throws IOException {
+    Path root = tmp.getRoot().toPath();
+    JavaFile taco = javaFile("com.example", "Taco");
+    try (AtomicSourceWriter writer =
+        AtomicSourceWriter.open(root, AtomicSourceWriter.Durability.NONE)) {
+      Path path = writer.write(taco);
+      assertThat((Iterable<?>) path).isEqualTo(root.resolve("com/example/Taco.java"));
+      assertThat(new String(Files.readAllBytes(path), UTF_8)).isEqualTo(taco.toString());
+    }
+    assertThat(files()).containsExactly("com/example/Taco.java");
+  }
+
+  @Test public void replacesExistingFile() throws IOException {
+    Path root = tmp.getRoot().toPath();
+    Path path = root.resolve("com/example/Taco.java");
+    Files.createDirectories(path.getParent());
+    Files.write(path, new byte[10_000]);
+
+    JavaFile taco = javaFile("com.example", "Taco");
+    try (AtomicSourceWriter writer =
+        AtomicSourceWriter.open(root, AtomicSourceWriter.Durability.NONE)) {
+      writer.write(taco);
+    }
+    assertThat(new String(Files.readAllBytes(path), UTF_8)).isEqualTo(taco.toString());
+    assertThat(files()).containsExactly("com/example/Taco.java");
+  }
+
+  @Test public void groupCommit() throws IOException {
+    Path root = tmp.getRoot().toPath();
+    List<JavaFile> javaFiles = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      javaFiles.add(javaFile("com.example.p" + (i % 3), "Taco" + i));
+    }
+
+    try (AtomicSourceWriter writer =
+        AtomicSourceWriter.open(root, AtomicSourceWriter.Durability.GROUP_COMMIT)) {
+      List<Path> paths = new ArrayList<>();
+      for (JavaFile javaFile : javaFiles) {
+        paths.add(writer.write(javaFile));
+      }
+      // Staged files are hidden until they're committed.
+      for (Path path : paths) {
+        assertThat(Files.exists(path)).isFalse();
+      }
+      assertThat(files()).hasSize(20);
+
+      writer.commit();
+      for (int i = 0; i < paths.size(); i++) {
+        assertThat(new String(Files.readAllBytes(paths.get(i)), UTF_8))
+            .isEqualTo(javaFiles.get(i).toString());
+      }
+      assertThat(files()).containsExactlyElementsIn(relativePaths(javaFiles));
+    }
+  }
+
+  @Test public void groupCommitSyncsPackageDirectoriesUpToRoot() throws IOException {
+    Path root = tmp.getRoot().toPath();
+    try (AtomicSourceWriter writer =
+        AtomicSourceWriter.open(root, AtomicSourceWriter.Durability.GROUP_COMMIT)) {
+      writer.write(javaFile("com.example", "Taco"));
+      // The file's directory, plus the parents of the new com and com/example directories.
+      assertThat(writer.unsyncedDirectories()).containsExactly(
+          root.resolve("com/example"), root.resolve("com"), root);
+      writer.commit();
+      assertThat(writer.unsyncedDirectories()).isEmpty();
+
+      writer.write(javaFile("com.example", "Burrito"));
+      assertThat(writer.unsyncedDirectories()).containsExactly(
+          root.resolve("com/example"), root.resolve("com"), root);
+    }
+  }
+
+  @Test public void groupCommitSyncsParentsOfMissingOutputDirectory() throws IOException {
+    Path parent = tmp.getRoot().toPath();
+    Path root = parent.resolve("generated/sources");
+    try (AtomicSourceWriter writer =
+        AtomicSourceWriter.open(root, AtomicSourceWriter.Durability.GROUP_COMMIT)) {
+      assertThat(writer.unsyncedDirectories()).containsExactly(parent.resolve("generated"), parent);
+      writer.write(javaFile("com.example", "Taco"));
+      writer.commit();
+    }
+    assertThat(files()).containsExactly("generated/sources/com/example/Taco.java");
+  }
+
+  @Test public void writersRacingIntoNewPackageSyncEveryAncestor() throws Exception {
+    Path root = tmp.getRoot().toPath();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      for (int round = 0; round < 20; round++) {
+        String packageName = "com.example.p" + round;
+        AtomicSourceWriter writer =
+            AtomicSourceWriter.open(root, AtomicSourceWriter.Durability.GROUP_COMMIT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Path>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+          JavaFile javaFile = javaFile(packageName, "Taco" + i);
+          futures.add(executor.submit(() -> {
+            start.await();
+            return writer.write(javaFile);
+          }));
+        }
+        start.countDown();
+        for (Future<Path> future : futures) {
+          future.get(10, TimeUnit.SECONDS);
+        }
+        // Whichever writer created the package, every writer's commit must sync its parents.
+        assertThat(writer.unsyncedDirectories()).containsExactly(
+            root.resolve("com/example/p" + round), root.resolve("com/example"),
+            root.resolve("com"), root);
+        writer.close();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test public void writeWithoutSyncTracksNoDirectories() throws IOException {
+    try (AtomicSourceWriter writer = AtomicSourceWriter.open(
+        tmp.getRoot().toPath(), AtomicSourceWriter.Durability.NONE)) {
+      writer.write(javaFile("com.example", "Taco"));
+      assertThat(writer.unsyncedDirectories()).isEmpty();
+    }
+  }
+
+  @Test public void closeCommits() throws IOException {
+    Path root = tmp.getRoot().toPath();
+    JavaFile taco = javaFile("com.example", "Taco");
+    AtomicSourceWriter writer =
+        AtomicSourceWriter.open(root, AtomicSourceWriter.Durability.GROUP_COMMIT);
+    Path path = writer.write(taco);
+    writer.close();
+    assertThat(new String(Files.readAllBytes(path), UTF_8)).isEqualTo(taco.toString());
+    assertThat(files()).containsExactly("com/example/Taco.java");
+
+    try {
+      writer.write(taco);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat().isEqualTo("closed");
+    }
+  }
+
+  @Test public void pathNotDirectory() throws IOException {
+    Path path = tmp.newFile("bar").toPath();
+    try (AtomicSourceWriter writer =
+        AtomicSourceWriter.open(path, AtomicSourceWriter.Durability.GROUP_COMMIT)) {
+      writer.write(javaFile("com.example", "Taco"));
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessageThat()
+          .isEqualTo("path " + path + " exists but is not a directory.");
+    }
+    assertThat(files()).containsExactly("bar");
+  }
+
+  private static List<String> relativePaths(List<JavaFile> javaFiles) {
+    List<String> result = new ArrayList<>();
+    for (JavaFile javaFile : javaFiles) {
+      result.add(javaFile.relativePath());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,462 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Generates files shaped like real generated code, for benchmarks and profiling. Every file is
+ * derived from a fixed seed, so the same shape and size always produce the same source. All files
+ * compile against the JDK alone.
+ */
+final class BenchmarkCorpus {
+  static final String PACKAGE = "com.squareup.corpus";
+
+  enum Shape {
+    /** A component of dependency-injection factories, as a DI framework generates them. */
+    DI_FACTORIES,
+    /** A message class with accessors, a builder, and value methods, as protoc generates them. */
+    MESSAGE,
+    /** An enum whose constants carry arguments and bodies, with a lookup method. */
+    HUGE_ENUM,
+    /** Builders nested in builders, with chained setters at every level. */
+    NESTED_BUILDERS,
+    /** An API of bounded generic methods and types. */
+    GENERIC_API,
+    /** String constants with escapes, non-ASCII text and multi-line values. */
+    STRING_RESOURCES
+  }
+
+  enum Size {
+    SMALL(10, 3),
+    MEDIUM(100, 6),
+    LARGE(1000, 10);
+
+    /** The number of members, constants or types of the shape's main repeated element. */
+    final int count;
+    /** The nesting depth of shapes that nest. */
+    final int depth;
+
+    Size(int count, int depth) {
+      this.count = count;
+      this.depth = depth;
+    }
+  }
+
+  private static final ClassName SUPPLIER = ClassName.get(Supplier.class);
+  private static final ClassName LIST = ClassName.get(List.class);
+  private static final ClassName MAP = ClassName.get(Map.class);
+  private static final ClassName OBJECTS = ClassName.get(Objects.class);
+
+  private static final String[] WORDS = {
+      "taco", "burrito", "salsa", "queso", "carnitas", "pollo", "verde", "roja", "limón", "piña",
+      "jalapeño", "crema", "tortilla", "cebolla", "cilantro", "aguacate"
+  };
+
+  private BenchmarkCorpus() {
+  }
+
+  /** Returns one file of every shape in {@code size}. */
+  static List<JavaFile> all(Size size) {
+    List<JavaFile> result = new ArrayList<>();
+    for (Shape shape : Shape.values()) {
+      result.add(generate(shape, size));
+    }
+    return result;
+  }
+
+  static JavaFile generate(Shape shape, Size size) {
+    Random random = new Random(31L * shape.ordinal() + size.ordinal());
+    String name = typeName(shape) + size.count;
+    TypeSpec type;
+    switch (shape) {
+      case DI_FACTORIES:
+        type = diFactories(name, size, random);
+        break;
+      case MESSAGE:
+        type = message(name, size, random);
+        break;
+      case HUGE_ENUM:
+        type = hugeEnum(name, size, random);
+        break;
+      case NESTED_BUILDERS:
+        type = nestedBuilders(name, size, random);
+        break;
+      case GENERIC_API:
+        type = genericApi(name, size, random);
+        break;
+      case STRING_RESOURCES:
+        type = stringResources(name, size, random);
+        break;
+      default:
+        throw new AssertionError(shape);
+    }
+    return JavaFile.builder(PACKAGE, type)
+        .addFileComment("Generated benchmark corpus: $L, $L.", shape, size)
+        .build();
+  }
+
+  private static String typeName(Shape shape) {
+    StringBuilder result = new StringBuilder();
+    for (String part : shape.name().toLowerCase(Locale.ROOT).split("_")) {
+      result.append(Character.toUpperCase(part.charAt(0))).append(part, 1, part.length());
+    }
+    return result.toString();
+  }
+
+  private static String word(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+
+  private static String identifier(Random random, int index) {
+    return word(random).replace('ó', 'o').replace('ñ', 'n') + index;
+  }
+
+  private static String capitalize(String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private static TypeSpec diFactories(String name, Size size, Random random) {
+    ClassName component = ClassName.get(PACKAGE, name);
+    TypeSpec.Builder result = TypeSpec.classBuilder(component)
+        .addModifiers(PUBLIC, FINAL)
+        .addJavadoc("Factories for $L services.\n", size.count);
+    for (int i = 0; i < size.count; i++) {
+      ClassName service = component.nestedClass("Service" + i);
+      ClassName factory = component.nestedClass("Service" + i + "_Factory");
+      List<ClassName> dependencies = new ArrayList<>();
+      for (int d = 0, count = i == 0 ? 0 : random.nextInt(Math.min(i, 5)) + 1; d < count; d++) {
+        ClassName dependency = component.nestedClass("Service" + random.nextInt(i));
+        if (!dependencies.contains(dependency)) dependencies.add(dependency);
+      }
+
+      MethodSpec.Builder serviceConstructor = MethodSpec.constructorBuilder();
+      MethodSpec.Builder factoryConstructor = MethodSpec.constructorBuilder()
+          .addModifiers(PUBLIC);
+      MethodSpec.Builder create = MethodSpec.methodBuilder("create")
+          .addModifiers(PUBLIC, STATIC)
+          .returns(factory);
+      TypeSpec.Builder factoryType = TypeSpec.classBuilder(factory)
+          .addModifiers(PUBLIC, STATIC, FINAL)
+          .addSuperinterface(ParameterizedTypeName.get(SUPPLIER, service));
+      CodeBlock.Builder newInstance = CodeBlock.builder().add("return new $T(", service);
+      CodeBlock.Builder createArguments = CodeBlock.builder();
+      for (int d = 0; d < dependencies.size(); d++) {
+        ClassName dependency = dependencies.get(d);
+        String provider = "provider" + dependency.simpleName();
+        TypeName providerType = ParameterizedTypeName.get(SUPPLIER, dependency);
+        serviceConstructor.addParameter(dependency, "dependency" + d);
+        factoryType.addField(providerType, provider, PRIVATE, FINAL);
+        factoryConstructor.addParameter(providerType, provider)
+            .addStatement("this.$N = $T.requireNonNull($N, $S)", provider, OBJECTS, provider,
+                provider + " == null");
+        create.addParameter(providerType, provider);
+        newInstance.add(d == 0 ? "$N.get()" : ",$W$N.get()", provider);
+        createArguments.add(d == 0 ? "$N" : ", $N", provider);
+      }
+      result.addType(TypeSpec.classBuilder(service)
+          .addModifiers(PUBLIC, STATIC, FINAL)
+          .addMethod(serviceConstructor.build())
+          .build());
+      result.addType(factoryType
+          .addMethod(factoryConstructor.build())
+          .addMethod(MethodSpec.methodBuilder("get")
+              .addAnnotation(Override.class)
+              .addModifiers(PUBLIC)
+              .returns(service)
+              .addStatement(newInstance.add(")").build())
+              .build())
+          .addMethod(create
+              .addStatement("return new $T($L)", factory, createArguments.build())
+              .build())
+          .build());
+    }
+    return result.build();
+  }
+
+  private static TypeSpec message(String name, Size size, Random random) {
+    ClassName message = ClassName.get(PACKAGE, name);
+    ClassName builder = message.nestedClass("Builder");
+    TypeName[] fieldTypes = {
+        TypeName.INT, TypeName.LONG, TypeName.BOOLEAN, TypeName.DOUBLE, ClassName.get(String.class),
+        ParameterizedTypeName.get(LIST, ClassName.get(String.class)),
+        ParameterizedTypeName.get(MAP, ClassName.get(String.class), ClassName.get(Long.class)),
+        ArrayTypeName.of(TypeName.BYTE)
+    };
+
+    TypeSpec.Builder result = TypeSpec.classBuilder(message)
+        .addModifiers(PUBLIC, FINAL)
+        .addJavadoc("A message with $L fields.\n", size.count);
+    TypeSpec.Builder builderType = TypeSpec.classBuilder(builder)
+        .addModifiers(PUBLIC, STATIC, FINAL);
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PRIVATE)
+        .addParameter(builder, "builder");
+    CodeBlock.Builder equality = CodeBlock.builder().add("return true");
+    CodeBlock.Builder hashCode = CodeBlock.builder().add("return $T.hash(", OBJECTS);
+    CodeBlock.Builder toString = CodeBlock.builder().add("return $S", name + "{");
+    for (int i = 0; i < size.count; i++) {
+      TypeName type = fieldTypes[random.nextInt(fieldTypes.length)];
+      String field = identifier(random, i);
+      String accessor = capitalize(field);
+      result.addField(FieldSpec.builder(int.class, field.toUpperCase(Locale.ROOT) + "_FIELD_NUMBER")
+          .addModifiers(PUBLIC, STATIC, FINAL)
+          .initializer("$L", i + 1)
+          .build());
+      result.addField(type, field, PRIVATE, FINAL);
+      builderType.addField(type, field, PRIVATE);
+      constructor.addStatement("this.$N = builder.$N", field, field);
+      result.addMethod(MethodSpec.methodBuilder("get" + accessor)
+          .addJavadoc("Returns field number {@code $L}.\n", i + 1)
+          .addModifiers(PUBLIC)
+          .returns(type)
+          .addStatement("return $N", field)
+          .build());
+      builderType.addMethod(MethodSpec.methodBuilder("set" + accessor)
+          .addModifiers(PUBLIC)
+          .returns(builder)
+          .addParameter(type, field)
+          .addStatement("this.$N = $N", field, field)
+          .addStatement("return this")
+          .build());
+      equality.add("$W&& $T.equals($N, other.$N)", OBJECTS, field, field);
+      hashCode.add(i == 0 ? "$N" : ",$W$N", field);
+      toString.add("$W+ $S + $N", (i == 0 ? "" : ", ") + field + "=", field);
+    }
+    builderType.addMethod(MethodSpec.methodBuilder("build")
+        .addModifiers(PUBLIC)
+        .returns(message)
+        .addStatement("return new $T(this)", message)
+        .build());
+    return result
+        .addMethod(constructor.build())
+        .addMethod(MethodSpec.methodBuilder("equals")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(boolean.class)
+            .addParameter(Object.class, "o")
+            .addStatement("if (!(o instanceof $T)) return false", message)
+            .addStatement("$T other = ($T) o", message, message)
+            .addStatement(equality.build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("hashCode")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(int.class)
+            .addStatement(hashCode.add(")").build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("toString")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(String.class)
+            .addStatement(toString.add("$W+ $S", "}").build())
+            .build())
+        .addType(builderType.build())
+        .build();
+  }
+
+  private static TypeSpec hugeEnum(String name, Size size, Random random) {
+    ClassName type = ClassName.get(PACKAGE, name);
+    TypeSpec.Builder result = TypeSpec.enumBuilder(type)
+        .addModifiers(PUBLIC)
+        .addField(int.class, "code", PRIVATE, FINAL)
+        .addField(String.class, "description", PRIVATE, FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addParameter(int.class, "code")
+            .addParameter(String.class, "description")
+            .addStatement("this.code = code")
+            .addStatement("this.description = description")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("label")
+            .addModifiers(PUBLIC)
+            .returns(String.class)
+            .addStatement("return description")
+            .build());
+    CodeBlock.Builder lookup = CodeBlock.builder().beginControlFlow("switch (code)");
+    for (int i = 0; i < size.count; i++) {
+      String constant = identifier(random, i).toUpperCase(Locale.ROOT);
+      String description = word(random) + " " + word(random) + " con " + word(random);
+      TypeSpec.Builder body = TypeSpec.anonymousClassBuilder("$L, $S", i * 10, description);
+      if (random.nextInt(4) == 0) {
+        body.addMethod(MethodSpec.methodBuilder("label")
+            .addAnnotation(Override.class)
+            .addModifiers(PUBLIC)
+            .returns(String.class)
+            .addStatement("return $S + super.label()", "special ")
+            .build());
+      }
+      result.addEnumConstant(constant, body.build());
+      lookup.add("case $L: return $N;\n", i * 10, constant);
+    }
+    lookup.add("default: throw new $T($S + code);\n", IllegalArgumentException.class,
+        "unknown code: ")
+        .endControlFlow();
+    return result
+        .addMethod(MethodSpec.methodBuilder("forCode")
+            .addModifiers(PUBLIC, STATIC)
+            .returns(type)
+            .addParameter(int.class, "code")
+            .addCode(lookup.build())
+            .build())
+        .build();
+  }
+
+  private static TypeSpec nestedBuilders(String name, Size size, Random random) {
+    ClassName root = ClassName.get(PACKAGE, name);
+    int width = Math.max(1, size.count / size.depth);
+    return nestedBuilder(root, size.depth, width, random).toBuilder()
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  /** Returns a type with {@code width} fields, the first of which is a nested type if any. */
+  private static TypeSpec nestedBuilder(ClassName type, int depth, int width, Random random) {
+    ClassName builder = type.nestedClass("Builder");
+    TypeSpec.Builder result = TypeSpec.classBuilder(type).addModifiers(FINAL);
+    if (type.enclosingClassName() != null) result.addModifiers(STATIC);
+    TypeSpec.Builder builderType = TypeSpec.classBuilder(builder)
+        .addModifiers(PUBLIC, STATIC, FINAL);
+    for (int i = 0; i < width; i++) {
+      String field = identifier(random, i);
+      TypeName fieldType;
+      if (i == 0 && depth > 1) {
+        ClassName child = type.nestedClass("Level" + (depth - 1));
+        result.addType(nestedBuilder(child, depth - 1, width, random));
+        fieldType = child;
+        builderType.addMethod(MethodSpec.methodBuilder(field)
+            .addModifiers(PUBLIC)
+            .returns(builder)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Function.class),
+                child.nestedClass("Builder"), child.nestedClass("Builder")), "configure")
+            .addStatement("this.$N = configure.apply(new $T()).build()", field,
+                child.nestedClass("Builder"))
+            .addStatement("return this")
+            .build());
+      } else {
+        fieldType = random.nextBoolean() ? ClassName.get(String.class) : TypeName.LONG;
+        builderType.addMethod(MethodSpec.methodBuilder(field)
+            .addModifiers(PUBLIC)
+            .returns(builder)
+            .addParameter(fieldType, field)
+            .addStatement("this.$N = $N", field, field)
+            .addStatement("return this")
+            .build());
+      }
+      result.addField(fieldType, field, FINAL);
+      builderType.addField(fieldType, field, PRIVATE);
+    }
+    MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+        .addModifiers(PRIVATE)
+        .addParameter(builder, "builder");
+    for (FieldSpec field : result.fieldSpecs) {
+      constructor.addStatement("this.$N = builder.$N", field, field);
+    }
+    builderType.addMethod(MethodSpec.methodBuilder("build")
+        .addModifiers(PUBLIC)
+        .returns(type)
+        .addStatement("return new $T(this)", type)
+        .build());
+    return result
+        .addMethod(constructor.build())
+        .addType(builderType.build())
+        .build();
+  }
+
+  private static TypeSpec genericApi(String name, Size size, Random random) {
+    TypeVariableName k = TypeVariableName.get("K");
+    TypeVariableName v = TypeVariableName.get("V");
+    TypeVariableName r = TypeVariableName.get("R");
+    TypeSpec.Builder result = TypeSpec.interfaceBuilder(ClassName.get(PACKAGE, name))
+        .addModifiers(PUBLIC)
+        .addTypeVariable(TypeVariableName.get("T", ParameterizedTypeName.get(
+            ClassName.get(Comparable.class), WildcardTypeName.supertypeOf(
+                TypeVariableName.get("T")))));
+    for (int i = 0; i < size.count; i++) {
+      TypeName key = ParameterizedTypeName.get(ClassName.get(Comparable.class),
+          WildcardTypeName.supertypeOf(k));
+      TypeName values = ParameterizedTypeName.get(ClassName.get(Collection.class),
+          WildcardTypeName.subtypeOf(v));
+      TypeName keyFunction = ParameterizedTypeName.get(ClassName.get(Function.class),
+          WildcardTypeName.supertypeOf(v), WildcardTypeName.subtypeOf(k));
+      TypeName mapper = ParameterizedTypeName.get(ClassName.get(Function.class),
+          WildcardTypeName.supertypeOf(ParameterizedTypeName.get(LIST, v)),
+          WildcardTypeName.subtypeOf(r));
+      MethodSpec.Builder method = MethodSpec.methodBuilder(identifier(random, i))
+          .addModifiers(PUBLIC, ABSTRACT)
+          .addTypeVariable(TypeVariableName.get("K", key))
+          .addTypeVariable(v)
+          .addParameter(values, "values")
+          .addParameter(keyFunction, "keyFunction");
+      if (random.nextBoolean()) {
+        method.addTypeVariable(r)
+            .addParameter(mapper, "mapper")
+            .returns(ParameterizedTypeName.get(MAP, k, r));
+      } else {
+        method.returns(ParameterizedTypeName.get(MAP, k, ParameterizedTypeName.get(LIST, v)));
+      }
+      result.addMethod(method.build());
+    }
+    return result.build();
+  }
+
+  private static TypeSpec stringResources(String name, Size size, Random random) {
+    TypeSpec.Builder result = TypeSpec.classBuilder(ClassName.get(PACKAGE, name))
+        .addModifiers(PUBLIC, FINAL);
+    CodeBlock.Builder all = CodeBlock.builder().add("{");
+    for (int i = 0; i < size.count; i++) {
+      String constant = identifier(random, i).toUpperCase(Locale.ROOT);
+      String value;
+      switch (random.nextInt(4)) {
+        case 0:
+          value = "Could not find the " + word(random) + " with id " + i + ", please try again.";
+          break;
+        case 1:
+          value = "SELECT id, name\n  FROM " + word(random) + "\n WHERE id = " + i + "\n";
+          break;
+        case 2:
+          value = "{\"name\": \"" + word(random) + "\", \"path\": \"C:\\\\tacos\\\\" + i + "\"}";
+          break;
+        default:
+          value = "¡" + word(random) + " " + word(random) + "! \t€" + i + " \u2603";
+          break;
+      }
+      result.addField(FieldSpec.builder(String.class, constant, PUBLIC, STATIC, FINAL)
+          .initializer("$S", value)
+          .build());
+      all.add(i == 0 ? "$N" : ",$W$N", constant);
+    }
+    return result
+        .addField(FieldSpec.builder(String[].class, "ALL", PUBLIC, STATIC, FINAL)
+            .initializer(all.add("}").build())
+            .build())
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build())
+        .build();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import com.google.testing.compile.Compilation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+public final class BenchmarkCorpusTest {
+  @Test public void generatedSourcesCompile() {
+    for (BenchmarkCorpus.Size size
+        : new BenchmarkCorpus.Size[] {BenchmarkCorpus.Size.SMALL, BenchmarkCorpus.Size.MEDIUM}) {
+      List<JavaFileObject> sources = new ArrayList<>();
+      for (JavaFile file : BenchmarkCorpus.all(size)) {
+        sources.add(file.toJavaFileObject());
+      }
+      Compilation compilation = javac().compile(sources);
+      assertThat(compilation).succeededWithoutWarnings();
+    }
+  }
+
+  @Test public void generationIsDeterministic() {
+    for (BenchmarkCorpus.Shape shape : BenchmarkCorpus.Shape.values()) {
+      String first = BenchmarkCorpus.generate(shape, BenchmarkCorpus.Size.LARGE).toString();
+      String second = BenchmarkCorpus.generate(shape, BenchmarkCorpus.Size.LARGE).toString();
+      assertThat(second).isEqualTo(first);
+    }
+  }
+
+  @Test public void generationIgnoresDefaultLocale() {
+    Locale defaultLocale = Locale.getDefault();
+    for (BenchmarkCorpus.Shape shape : BenchmarkCorpus.Shape.values()) {
+      String expected = BenchmarkCorpus.generate(shape, BenchmarkCorpus.Size.MEDIUM).toString();
+      Locale.setDefault(new Locale("tr", "TR")); // Upper-cases 'i' to a dotted capital I.
+      try {
+        assertThat(BenchmarkCorpus.generate(shape, BenchmarkCorpus.Size.MEDIUM).toString())
+            .isEqualTo(expected);
+      } finally {
+        Locale.setDefault(defaultLocale);
+      }
+    }
+  }
+
+  @Test public void sizesScale() {
+    for (BenchmarkCorpus.Shape shape : BenchmarkCorpus.Shape.values()) {
+      int small = BenchmarkCorpus.generate(shape, BenchmarkCorpus.Size.SMALL).toString().length();
+      int large = BenchmarkCorpus.generate(shape, BenchmarkCorpus.Size.LARGE).toString().length();
+      assertThat(large).isGreaterThan(small * 10);
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.mockito.Mockito;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.Elements;
 
+import java.util.Collections;
 import java.util.Map;
 
 import static com.google.common.truth.Truth.assertThat;
@@ -206,4 +207,64 @@ public final class ClassNameTest {
     assertEquals("Foo.Bar.Baz", ClassName.get("", "Foo", "Bar", "Baz").canonicalName());
     assertEquals("a.b.c.Foo.Bar.Baz", ClassName.get("a.b.c", "Foo", "Bar", "Baz").canonicalName());
   }
+
+  @Test public void derivedNamesAreCached() {
+    ClassName baz = ClassName.get("a.b.c", "Foo", "Bar", "Baz");
+    assertThat(baz.reflectionName()).isSameInstanceAs(baz.reflectionName());
+    assertThat(baz.canonicalName()).isSameInstanceAs(baz.canonicalName());
+    assertThat(baz.simpleNames()).isSameInstanceAs(baz.simpleNames());
+    assertThat(baz.simpleNames()).containsExactly("Foo", "Bar", "Baz").inOrder();
+    assertThat(baz.topLevelClassName()).isSameInstanceAs(
+        baz.enclosingClassName().enclosingClassName());
+    assertThat(baz.peerClass("Qux").canonicalName()).isEqualTo("a.b.c.Foo.Bar.Qux");
+  }
+
+  @Test public void intern() {
+    ClassName entry = ClassName.get("java.util", "Map", "Entry").intern();
+    assertThat(ClassName.bestGuess("java.util.Map.Entry").intern()).isSameInstanceAs(entry);
+    assertThat(ClassName.get(Map.Entry.class).intern()).isSameInstanceAs(entry);
+    assertThat(entry.intern()).isSameInstanceAs(entry);
+  }
+
+  @Test public void internDistinguishesPackages() {
+    ClassName nested = ClassName.get("com.example", "b", "C").intern();
+    ClassName topLevel = ClassName.get("com.example.b", "C");
+    assertThat(topLevel.intern()).isSameInstanceAs(topLevel);
+    assertThat(nested.intern()).isSameInstanceAs(nested);
+  }
+
+  @Test public void internIgnoresAnnotatedNames() {
+    AnnotationSpec annotation = AnnotationSpec.builder(ClassName.get("", "Nullable")).build();
+    ClassName annotated = ClassName.get("com.example", "Taco")
+        .annotated(Collections.singletonList(annotation));
+    assertThat(annotated.intern()).isSameInstanceAs(annotated);
+  }
+
+  @Test public void internStatistics() {
+    ClassName.InternStatistics before = ClassName.internStatistics();
+    ClassName first = ClassName.get("com.example.stats", "Burrito").intern();
+    ClassName second = ClassName.get("com.example.stats", "Burrito").intern();
+    ClassName.InternStatistics after = ClassName.internStatistics();
+
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(after.requestCount - before.requestCount).isAtLeast(2);
+    assertThat(after.hitCount - before.hitCount).isAtLeast(1);
+    assertThat(after.estimatedBytesSaved).isGreaterThan(before.estimatedBytesSaved);
+  }
+
+  @Test public void interningFactories() {
+    ClassName.setInterning(true);
+    try {
+      ClassName taco = ClassName.get("com.example", "Taco");
+      assertThat(ClassName.get("com.example", "Taco")).isSameInstanceAs(taco);
+      assertThat(ClassName.bestGuess("com.example.Taco")).isSameInstanceAs(taco);
+      assertThat(taco.nestedClass("Shell")).isSameInstanceAs(taco.nestedClass("Shell"));
+      assertThat(taco.peerClass("Burrito")).isSameInstanceAs(taco.peerClass("Burrito"));
+      assertThat(ClassName.get(String.class)).isSameInstanceAs(ClassName.get(String.class));
+    } finally {
+      ClassName.setInterning(false);
+    }
+    assertThat(ClassName.get("com.example", "Taco"))
+        .isNotSameInstanceAs(ClassName.get("com.example", "Taco"));
+  }
 }
@@ -341,6 +341,40 @@ public final class CodeBlockTest {
     assertThat(joined.toString()).isEqualTo("start {\"hello\" || world.World || need tacos} end");
   }
 
+  @Test public void deeplyNestedBlocks() {
+    CodeBlock block = CodeBlock.of("$L + $L + $L + $L + $L", 1, 2, 3, 4, 5);
+    StringBuilder expected = new StringBuilder(block.toString());
+    for (int i = 0; i < 10_000; i++) {
+      block = CodeBlock.builder().add("(").add(block).add(")").build();
+      expected.insert(0, '(').append(')');
+    }
+    // Big children are referenced rather than copied, so parts don't accumulate across levels.
+    assertThat(block.formatParts.size()).isAtMost(10);
+    assertThat(block.toString()).isEqualTo(expected.toString());
+  }
+
+  @Test public void addReferencedChildThenToBuilder() {
+    CodeBlock child = CodeBlock.of("$L + $L + $L + $L + $L", 1, 2, 3, 4, 5);
+    CodeBlock parent = CodeBlock.builder().add("x = ").add(child).build();
+    CodeBlock edited = parent.toBuilder().add(";").build();
+    assertThat(parent.toString()).isEqualTo("x = 1 + 2 + 3 + 4 + 5");
+    assertThat(edited.toString()).isEqualTo("x = 1 + 2 + 3 + 4 + 5;");
+    assertThat(edited).isEqualTo(CodeBlock.of("x = 1 + 2 + 3 + 4 + 5;"));
+  }
+
+  @Test public void joiningParallel() {
+    List<CodeBlock> codeBlocks = new ArrayList<>();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 1_000; i++) {
+      codeBlocks.add(CodeBlock.of("$T.value($L)", ClassName.get("world", "World"), i));
+      if (i > 0) expected.append(", ");
+      expected.append("world.World.value(").append(i).append(")");
+    }
+
+    CodeBlock joined = codeBlocks.parallelStream().collect(CodeBlock.joining(", "));
+    assertThat(joined.toString()).isEqualTo(expected.toString());
+  }
+
   @Test public void clear() {
     CodeBlock block = CodeBlock.builder()
         .addStatement("$S", "Test string")
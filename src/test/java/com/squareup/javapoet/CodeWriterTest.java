@@ -2,7 +2,11 @@ package com.squareup.javapoet;
 
 import org.junit.Test;
 
+import javax.lang.model.element.Modifier;
+
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
 
 import static com.google.common.truth.Truth.assertThat;
 
@@ -20,4 +24,23 @@ public class CodeWriterTest {
                         " * B\n" +
                         " */\n");
     }
+
+    @Test
+    public void emitModifiersBeyondCachedCombinations() throws IOException {
+        Modifier[] modifiers = Modifier.values();
+        // More combinations than the keyword cache has slots, so some are rendered uncached.
+        for (int mask = 1; mask < 1 << 10; mask++) {
+            Set<Modifier> set = EnumSet.noneOf(Modifier.class);
+            StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    set.add(modifiers[i]);
+                    expected.append(modifiers[i]).append(' ');
+                }
+            }
+            StringBuilder out = new StringBuilder();
+            new CodeWriter(out).emitModifiers(set);
+            assertThat(out.toString()).isEqualTo(expected.toString());
+        }
+    }
 }
\ No newline at end of file
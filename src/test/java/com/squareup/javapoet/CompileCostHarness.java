@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Measures how long javac takes to compile the {@link BenchmarkCorpus} when it is emitted with
+ * different {@link JavaFile} options. Each option's sources are compiled in-process repeatedly,
+ * and a {@link TaskListener} attributes the compiler's time to its parse, enter, analyze
+ * (attribution and flow analysis) and generate phases. Run with:
+ *
+ * <pre>
+ *   ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/test-classpath.txt) \
+ *       com.squareup.javapoet.CompileCostHarness MEDIUM 20
+ * </pre>
+ *
+ * <p>The arguments are the corpus size and the number of measured compilations per option; as
+ * many compilations again are run first to warm up the compiler.
+ */
+final class CompileCostHarness {
+  enum Option {
+    /** The defaults: imports, including {@code java.lang} types, and concatenated strings. */
+    IMPORTS(file -> file),
+
+    /** Imports, but {@code java.lang} types are referenced by simple name without an import. */
+    SKIP_JAVA_LANG_IMPORTS(file -> file.toBuilder().skipJavaLangImports(true).build()),
+
+    /** Every type that would be imported is referenced by its qualified name instead. */
+    QUALIFIED_NAMES(CompileCostHarness::qualifyImportedNames),
+
+    /** Multi-line strings are emitted as text blocks. */
+    TEXT_BLOCKS(file -> file.toBuilder().textBlocks(true).build());
+
+    final UnaryOperator<JavaFile> transform;
+
+    Option(UnaryOperator<JavaFile> transform) {
+      this.transform = transform;
+    }
+  }
+
+  enum Phase {
+    PARSE, ENTER, ANALYZE, GENERATE
+  }
+
+  /** Average times of one compilation, in nanoseconds. */
+  static final class Result {
+    final Map<Phase, Long> phaseNanos;
+    final long totalNanos;
+
+    Result(Map<Phase, Long> phaseNanos, long totalNanos) {
+      this.phaseNanos = phaseNanos;
+      this.totalNanos = totalNanos;
+    }
+  }
+
+  private CompileCostHarness() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    BenchmarkCorpus.Size size = args.length > 0
+        ? BenchmarkCorpus.Size.valueOf(args[0].toUpperCase(Locale.US))
+        : BenchmarkCorpus.Size.MEDIUM;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    Map<Option, Result> results = measure(BenchmarkCorpus.all(size), iterations);
+    System.out.printf("%-24s %10s %10s %10s %11s %10s%n",
+        "option (" + size + ")", "parse ms", "enter ms", "analyze ms", "generate ms", "total ms");
+    for (Map.Entry<Option, Result> entry : results.entrySet()) {
+      Result result = entry.getValue();
+      System.out.printf("%-24s %10.2f %10.2f %10.2f %11.2f %10.2f%n", entry.getKey(),
+          millis(result.phaseNanos.get(Phase.PARSE)),
+          millis(result.phaseNanos.get(Phase.ENTER)),
+          millis(result.phaseNanos.get(Phase.ANALYZE)),
+          millis(result.phaseNanos.get(Phase.GENERATE)),
+          millis(result.totalNanos));
+    }
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  /**
+   * Compiles {@code files} as emitted with each option, {@code iterations} times after as many
+   * warmup compilations, and returns the average times.
+   */
+  static Map<Option, Result> measure(List<JavaFile> files, int iterations) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Map<Option, List<JavaFileObject>> sources = new EnumMap<>(Option.class);
+    for (Option option : Option.values()) {
+      List<JavaFileObject> optionSources = new ArrayList<>();
+      for (JavaFile file : files) {
+        optionSources.add(option.transform.apply(file).toJavaFileObject());
+      }
+      sources.put(option, optionSources);
+    }
+
+    Map<Option, Result> results = new LinkedHashMap<>();
+    try (StandardJavaFileManager standardFileManager =
+        compiler.getStandardFileManager(null, Locale.US, null)) {
+      JavaFileManager fileManager = new DiscardingFileManager(standardFileManager);
+      for (int i = 0; i < iterations; i++) {
+        for (Option option : Option.values()) {
+          compile(compiler, fileManager, sources.get(option), new EnumMap<>(Phase.class));
+        }
+      }
+      // Interleave the options so that drifting machine load affects them all alike.
+      Map<Option, Map<Phase, Long>> phaseTotals = new EnumMap<>(Option.class);
+      Map<Option, Long> totals = new EnumMap<>(Option.class);
+      for (Option option : Option.values()) {
+        Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+          phases.put(phase, 0L);
+        }
+        phaseTotals.put(option, phases);
+        totals.put(option, 0L);
+      }
+      for (int i = 0; i < iterations; i++) {
+        for (Option option : Option.values()) {
+          long nanos = compile(compiler, fileManager, sources.get(option), phaseTotals.get(option));
+          totals.merge(option, nanos, Long::sum);
+        }
+      }
+      for (Option option : Option.values()) {
+        Map<Phase, Long> averages = new EnumMap<>(Phase.class);
+        phaseTotals.get(option).forEach((phase, nanos) -> averages.put(phase, nanos / iterations));
+        results.put(option, new Result(averages, totals.get(option) / iterations));
+      }
+    }
+    return results;
+  }
+
+  /** Compiles {@code sources}, adds each phase's time to {@code phaseNanos}, and returns the total. */
+  private static long compile(JavaCompiler compiler, JavaFileManager fileManager,
+      List<JavaFileObject> sources, Map<Phase, Long> phaseNanos) {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics,
+        Arrays.asList("-proc:none", "-Xlint:none", "-nowarn"), null, sources);
+    PhaseTimer timer = new PhaseTimer(phaseNanos);
+    task.addTaskListener(timer);
+    long start = System.nanoTime();
+    boolean success = task.call();
+    long nanos = System.nanoTime() - start;
+    if (!success) {
+      throw new IllegalStateException("compilation failed: " + diagnostics.getDiagnostics());
+    }
+    return nanos;
+  }
+
+  private static JavaFile qualifyImportedNames(JavaFile file) {
+    List<String> simpleNames = new ArrayList<>();
+    for (String line : file.toString().split("\n")) {
+      if (line.startsWith("import ") && !line.startsWith("import static ")) {
+        simpleNames.add(line.substring(line.lastIndexOf('.') + 1, line.length() - 1));
+      }
+    }
+    TypeSpec typeSpec = file.typeSpec.toBuilder()
+        .alwaysQualify(simpleNames.toArray(new String[0]))
+        .build();
+    return file.toBuilder(typeSpec).build();
+  }
+
+  /** Adds the time between each phase's start and finish events to a total per phase. */
+  private static final class PhaseTimer implements TaskListener {
+    private final Map<Phase, Long> phaseNanos;
+    private final Map<Phase, Long> started = new HashMap<>();
+
+    PhaseTimer(Map<Phase, Long> phaseNanos) {
+      this.phaseNanos = phaseNanos;
+    }
+
+    private static Phase phase(TaskEvent event) {
+      switch (event.getKind()) {
+        case PARSE:
+          return Phase.PARSE;
+        case ENTER:
+          return Phase.ENTER;
+        case ANALYZE:
+          return Phase.ANALYZE;
+        case GENERATE:
+          return Phase.GENERATE;
+        default:
+          return null;
+      }
+    }
+
+    @Override public void started(TaskEvent event) {
+      Phase phase = phase(event);
+      if (phase != null) started.put(phase, System.nanoTime());
+    }
+
+    @Override public void finished(TaskEvent event) {
+      Phase phase = phase(event);
+      Long start = phase != null ? started.remove(phase) : null;
+      if (start != null) phaseNanos.merge(phase, System.nanoTime() - start, Long::sum);
+    }
+  }
+
+  /** Compiles to nowhere, so that measurements don't include writing class files. */
+  private static final class DiscardingFileManager
+      extends ForwardingJavaFileManager<JavaFileManager> {
+    DiscardingFileManager(JavaFileManager fileManager) {
+      super(fileManager);
+    }
+
+    @Override public JavaFileObject getJavaFileForOutput(Location location, String className,
+        JavaFileObject.Kind kind, FileObject sibling) {
+      return new SimpleJavaFileObject(URI.create("discard:///" + className.replace('.', '/')
+          + kind.extension), kind) {
+        @Override public OutputStream openOutputStream() {
+          return OutputStream.nullOutputStream();
+        }
+      };
+    }
+  }
+}
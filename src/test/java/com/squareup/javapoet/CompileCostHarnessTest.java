@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.Map;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class CompileCostHarnessTest {
+  @Test public void measuresEveryOptionAndPhase() throws Exception {
+    Map<CompileCostHarness.Option, CompileCostHarness.Result> results = CompileCostHarness.measure(
+        BenchmarkCorpus.all(BenchmarkCorpus.Size.SMALL), 1);
+
+    assertThat(results.keySet()).containsExactlyElementsIn(CompileCostHarness.Option.values());
+    for (CompileCostHarness.Result result : results.values()) {
+      assertThat(result.totalNanos).isGreaterThan(0L);
+      for (CompileCostHarness.Phase phase : CompileCostHarness.Phase.values()) {
+        assertThat(result.phaseNanos.get(phase)).isGreaterThan(0L);
+      }
+    }
+  }
+
+  @Test public void qualifiedNamesOptionRemovesImports() {
+    JavaFile file = BenchmarkCorpus.generate(BenchmarkCorpus.Shape.MESSAGE,
+        BenchmarkCorpus.Size.SMALL);
+    String qualified = CompileCostHarness.Option.QUALIFIED_NAMES.transform.apply(file).toString();
+    assertThat(file.toString()).contains("\nimport java.util.List;\n");
+    assertThat(qualified).doesNotContain("\nimport ");
+    assertThat(qualified).contains("java.util.List<java.lang.String>");
+  }
+
+  @Test public void qualifiedNamesOptionKeepsOtherFileSettings() {
+    JavaFile file = JavaFile.builder("com.squareup.tacos", TypeSpec.classBuilder("Taco")
+            .addField(ClassName.get("java.util", "List"), "fillings")
+            .addMethod(MethodSpec.methodBuilder("now")
+                .addStatement("return $T.currentTimeMillis()", System.class)
+                .build())
+            .build())
+        .addStaticImport(Math.class, "max")
+        .skipJavaLangImports(true)
+        .indent("\t")
+        .build();
+    String qualified = CompileCostHarness.Option.QUALIFIED_NAMES.transform.apply(file).toString();
+    assertThat(qualified).contains("\nimport static java.lang.Math.max;\n");
+    assertThat(qualified).contains("\n\tjava.util.List fillings;\n");
+    assertThat(qualified).contains("\t\treturn System.currentTimeMillis();\n");
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public final class ConcurrentNameAllocatorTest {
+  private static final int THREADS = 8;
+  private static final int NAMES_PER_THREAD = 500;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+  @After public void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  /** Runs {@code task} on every thread at once, passing each its thread index. */
+  private void race(ThreadTask task) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      int thread = i;
+      futures.add(executor.submit(() -> {
+        start.await();
+        task.run(thread);
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+  }
+
+  private interface ThreadTask {
+    void run(int thread) throws Exception;
+  }
+
+  @Test public void usage() {
+    ConcurrentNameAllocator nameAllocator = new ConcurrentNameAllocator();
+    assertThat(nameAllocator.newName("foo", 1)).isEqualTo("foo");
+    assertThat(nameAllocator.newName("foo", 2)).isEqualTo("foo_");
+    assertThat(nameAllocator.newName("public", 3)).isEqualTo("public_");
+    assertThat(nameAllocator.newName("1a-b")).isEqualTo("_1a_b");
+    assertThat(nameAllocator.get(1)).isEqualTo("foo");
+    assertThat(nameAllocator.get(2)).isEqualTo("foo_");
+    assertThat(nameAllocator.get(3)).isEqualTo("public_");
+  }
+
+  @Test public void tagReuseForbidden() {
+    ConcurrentNameAllocator nameAllocator = new ConcurrentNameAllocator();
+    nameAllocator.newName("foo", 1);
+    try {
+      nameAllocator.newName("bar", 1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessageThat()
+          .isEqualTo("tag 1 cannot be used for both 'foo' and 'bar'");
+    }
+    // The rejected name is released.
+    assertThat(nameAllocator.newName("bar", 2)).isEqualTo("bar");
+  }
+
+  @Test public void unknownTag() {
+    ConcurrentNameAllocator nameAllocator = new ConcurrentNameAllocator();
+    try {
+      nameAllocator.get(1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessageThat().isEqualTo("unknown tag: 1");
+    }
+  }
+
+  @Test public void concurrentNamesAreUnique() throws Exception {
+    ConcurrentNameAllocator nameAllocator = new ConcurrentNameAllocator();
+    List<Set<String>> perThread = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) perThread.add(new HashSet<>());
+    race(thread -> {
+      for (int i = 0; i < NAMES_PER_THREAD; i++) {
+        perThread.get(thread).add(nameAllocator.newName("name" + (i % 10), thread + ":" + i));
+      }
+    });
+
+    Set<String> all = new HashSet<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      for (int i = 0; i < NAMES_PER_THREAD; i++) {
+        assertThat(perThread.get(thread)).contains(nameAllocator.get(thread + ":" + i));
+      }
+      all.addAll(perThread.get(thread));
+    }
+    assertThat(all).hasSize(THREADS * NAMES_PER_THREAD);
+  }
+
+  @Test public void orderedMatchesSequentialAllocation() throws Exception {
+    List<Integer> tags = new ArrayList<>();
+    for (int i = 0; i < THREADS * NAMES_PER_THREAD; i++) tags.add(i);
+
+    NameAllocator expected = new NameAllocator();
+    for (Integer tag : tags) {
+      expected.newName(suggestion(tag), tag);
+    }
+
+    for (int round = 0; round < 3; round++) {
+      List<Integer> shuffled = new ArrayList<>(tags);
+      Collections.shuffle(shuffled, new Random(round));
+      ConcurrentNameAllocator nameAllocator = ConcurrentNameAllocator.ordered();
+      race(thread -> {
+        for (int i = thread; i < shuffled.size(); i += THREADS) {
+          nameAllocator.reserve(suggestion(shuffled.get(i)), shuffled.get(i));
+        }
+      });
+      race(thread -> {
+        for (int i = thread; i < tags.size(); i += THREADS) {
+          assertThat(nameAllocator.get(tags.get(i))).isEqualTo(expected.get(tags.get(i)));
+        }
+      });
+    }
+  }
+
+  private static String suggestion(int tag) {
+    return tag % 7 == 0 ? "class" : "name" + (tag % 13);
+  }
+
+  @Test public void orderedWithComparator() {
+    ConcurrentNameAllocator nameAllocator =
+        ConcurrentNameAllocator.ordered(Comparator.comparing(String::length));
+    nameAllocator.reserve("foo", "ccc");
+    nameAllocator.reserve("foo", "a");
+    nameAllocator.reserve("foo", "bb");
+    assertThat(nameAllocator.get("a")).isEqualTo("foo");
+    assertThat(nameAllocator.get("bb")).isEqualTo("foo_");
+    assertThat(nameAllocator.get("ccc")).isEqualTo("foo__");
+  }
+
+  @Test public void orderedRejectsNewName() {
+    ConcurrentNameAllocator nameAllocator = ConcurrentNameAllocator.ordered();
+    try {
+      nameAllocator.newName("foo", 1);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat()
+          .isEqualTo("ordered allocators assign names on get(); use reserve()");
+    }
+  }
+
+  @Test public void orderedRejectsReservationsAfterGet() {
+    ConcurrentNameAllocator nameAllocator = ConcurrentNameAllocator.ordered();
+    nameAllocator.reserve("foo", 1);
+    assertThat(nameAllocator.get(1)).isEqualTo("foo");
+    try {
+      nameAllocator.reserve("bar", 2);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat()
+          .isEqualTo("names have already been assigned; cannot reserve 2");
+    }
+  }
+
+  @Test public void orderedTagReuseForbidden() {
+    ConcurrentNameAllocator nameAllocator = ConcurrentNameAllocator.ordered();
+    nameAllocator.reserve("foo", 1);
+    try {
+      nameAllocator.reserve("bar", 1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected).hasMessageThat()
+          .isEqualTo("tag 1 cannot be used for both 'foo' and 'bar'");
+    }
+  }
+
+  @Test public void orderedRejectsTiedTags() {
+    ConcurrentNameAllocator nameAllocator =
+        ConcurrentNameAllocator.ordered(Comparator.comparing(String::length));
+    nameAllocator.reserve("foo", "a");
+    nameAllocator.reserve("bar", "b");
+    try {
+      nameAllocator.get("a");
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat().isEqualTo("tags a and b are ordered equally");
+    }
+  }
+}
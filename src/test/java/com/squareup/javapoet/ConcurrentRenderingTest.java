@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.lang.model.element.Element;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Renders shared, freshly built spec trees from many threads at once. Every round builds new
+ * specs so that their lazily-initialized caches are cold when the threads start racing to fill
+ * them.
+ */
+public final class ConcurrentRenderingTest {
+  private static final int THREADS = 32;
+  private static final int ROUNDS = 5;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+  @After public void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  /** Runs {@code task} on every thread at once and returns the results. */
+  private <T> List<T> race(Callable<T> task) throws Exception {
+    CountDownLatch ready = new CountDownLatch(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<T>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(executor.submit(() -> {
+        ready.countDown();
+        start.await();
+        return task.call();
+      }));
+    }
+    ready.await();
+    start.countDown();
+    List<T> results = new ArrayList<>();
+    for (Future<T> future : futures) {
+      results.add(future.get(60, TimeUnit.SECONDS));
+    }
+    return results;
+  }
+
+  @Test public void renderSharedFiles() throws Exception {
+    List<String> expected = new ArrayList<>();
+    for (JavaFile file : BenchmarkCorpus.all(BenchmarkCorpus.Size.SMALL)) {
+      expected.add(file.toString());
+    }
+
+    for (int round = 0; round < ROUNDS; round++) {
+      List<JavaFile> files = BenchmarkCorpus.all(BenchmarkCorpus.Size.SMALL);
+      List<List<String>> results = race(() -> {
+        List<String> sources = new ArrayList<>();
+        for (JavaFile file : files) {
+          sources.add(file.toString());
+        }
+        return sources;
+      });
+      for (List<String> sources : results) {
+        assertThat(sources).containsExactlyElementsIn(expected).inOrder();
+      }
+    }
+  }
+
+  @Test public void renderSharedFilesWithSharedRenderCache() throws Exception {
+    RenderCache renderCache = new RenderCache();
+    List<JavaFile> files = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    for (JavaFile file : BenchmarkCorpus.all(BenchmarkCorpus.Size.SMALL)) {
+      files.add(file.toBuilder().renderCache(renderCache).build());
+      expected.add(file.toString());
+    }
+
+    for (int round = 0; round < ROUNDS; round++) {
+      List<List<String>> results = race(() -> {
+        List<String> sources = new ArrayList<>();
+        for (JavaFile file : files) {
+          sources.add(file.toString());
+        }
+        return sources;
+      });
+      for (List<String> sources : results) {
+        assertThat(sources).containsExactlyElementsIn(expected).inOrder();
+      }
+    }
+    assertThat(renderCache.hitCount()).isGreaterThan(0L);
+  }
+
+  @Test public void sharedTypeNames() throws Exception {
+    for (int round = 0; round < ROUNDS * 10; round++) {
+      ClassName entry = ClassName.get("java.util", "Map", "Entry");
+      TypeName type = ParameterizedTypeName.get(entry,
+          WildcardTypeName.subtypeOf(ClassName.get("com.squareup.tacos", "Taco", "Filling")),
+          ArrayTypeName.of(TypeVariableName.get("T", Comparable.class)));
+      List<String> results = race(() -> type + " " + entry.canonicalName() + " "
+          + entry.reflectionName() + " " + entry.simpleNames() + " " + type.hashCode());
+      String expected = "java.util.Map.Entry<? extends com.squareup.tacos.Taco.Filling, T[]>"
+          + " java.util.Map.Entry java.util.Map$Entry [Map, Entry] " + type.toString().hashCode();
+      assertThat(results).containsExactlyElementsIn(
+          Collections.nCopies(THREADS, expected));
+    }
+  }
+
+  @Test public void sharedOriginatingElements() throws Exception {
+    for (int round = 0; round < ROUNDS * 10; round++) {
+      TypeSpec.Builder outer = TypeSpec.classBuilder("Outer");
+      for (int i = 0; i < 20; i++) {
+        outer.addType(TypeSpec.classBuilder("Inner" + i)
+            .addOriginatingElement(Mockito.mock(Element.class))
+            .build());
+      }
+      TypeSpec type = outer.build();
+      List<Integer> sizes = race(() -> type.originatingElements.size());
+      assertThat(sizes).containsExactlyElementsIn(Collections.nCopies(THREADS, 20));
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building and rendering each {@link BenchmarkCorpus} shape. Run with:
+ *
+ * <pre>
+ *   ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/test-classpath.txt) \
+ *       org.openjdk.jmh.Main CorpusBenchmark -p size=MEDIUM -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusBenchmark {
+  @Param({"DI_FACTORIES", "MESSAGE", "HUGE_ENUM", "NESTED_BUILDERS", "GENERIC_API",
+      "STRING_RESOURCES"})
+  public String shape;
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public String size;
+
+  private BenchmarkCorpus.Shape corpusShape;
+  private BenchmarkCorpus.Size corpusSize;
+  private JavaFile file;
+
+  @Setup public void setUp() {
+    corpusShape = BenchmarkCorpus.Shape.valueOf(shape);
+    corpusSize = BenchmarkCorpus.Size.valueOf(size);
+    file = BenchmarkCorpus.generate(corpusShape, corpusSize);
+  }
+
+  @Benchmark public JavaFile build() {
+    return BenchmarkCorpus.generate(corpusShape, corpusSize);
+  }
+
+  @Benchmark public String render() {
+    return file.toString();
+  }
+}
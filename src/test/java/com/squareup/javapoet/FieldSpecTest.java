@@ -63,4 +63,27 @@ public class FieldSpecTest {
     builder.modifiers.remove(1);
     assertThat(builder.build().modifiers).containsExactly(Modifier.PUBLIC);
   }
+
+  @Test public void modifiersAreOrderedAndImmutable() {
+    FieldSpec field = FieldSpec.builder(int.class, "FOO")
+        .addModifiers(Modifier.FINAL, Modifier.STATIC, Modifier.PRIVATE)
+        .build();
+    assertThat(field.modifiers)
+        .containsExactly(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).inOrder();
+    assertThat(field.toString()).isEqualTo("private static final int FOO;\n");
+    try {
+      field.modifiers.add(Modifier.PUBLIC);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test public void nullModifier() {
+    try {
+      FieldSpec.builder(int.class, "foo").addModifiers((Modifier) null).build();
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertThat(expected.getMessage()).isEqualTo("modifiers contain null");
+    }
+  }
 }
@@ -86,7 +86,25 @@ public class FileReadingTest {
   }
   
   @Test public void compileJavaFile() throws Exception {
-    final String value = "Hello World!";
+    assertCompilesAndReturns("Hello World!", false);
+  }
+
+  @Test public void compileJavaFileWithStringExceedingConstantPoolLimit() throws Exception {
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; value.length() < 100_000; i++) {
+      value.append("line ").append(i).append(" \u20ac\n");
+    }
+    assertCompilesAndReturns(value.toString(), false);
+    assertCompilesAndReturns(value.toString(), true);
+  }
+
+  @Test public void compileJavaFileWithTextBlock() throws Exception {
+    assertCompilesAndReturns("SELECT *\n  FROM taco  \n WHERE \"\"\"\"\"\" = '\\'\n\n\t\"end\"", true);
+    assertCompilesAndReturns("first\nsecond\n", true);
+    assertCompilesAndReturns("\n\n \n", true);
+  }
+
+  private void assertCompilesAndReturns(String value, boolean textBlocks) throws Exception {
     TypeSpec type = TypeSpec.classBuilder("Test")
         .addModifiers(Modifier.PUBLIC)
         .addSuperinterface(ParameterizedTypeName.get(Callable.class, String.class))
@@ -96,7 +114,7 @@ public class FileReadingTest {
             .addStatement("return $S", value)
             .build())
         .build();
-    JavaFile javaFile = JavaFile.builder("foo", type).build();
+    JavaFile javaFile = JavaFile.builder("foo", type).textBlocks(textBlocks).build();
 
     JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
     DiagnosticCollector<JavaFileObject> diagnosticCollector = new DiagnosticCollector<>();
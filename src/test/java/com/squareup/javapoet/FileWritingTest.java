@@ -25,16 +25,29 @@ import org.junit.runners.JUnit4;
 import org.mockito.Mockito;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.fail;
 
@@ -169,6 +182,46 @@ public final class FileWritingTest {
     assertThat(filer.getOriginatingElements(testPath2)).containsExactly(element2_1, element2_2);
   }
 
+  @Test public void filerResolvesOriginatingElementDescriptors() throws IOException {
+    Name originName = Mockito.mock(Name.class);
+    Mockito.when(originName.toString()).thenReturn("example.Origin");
+    TypeElement origin = Mockito.mock(TypeElement.class);
+    Mockito.when(origin.getQualifiedName()).thenReturn(originName);
+    ExecutableElement method = Mockito.mock(ExecutableElement.class);
+    Mockito.when(method.getEnclosingElement()).thenReturn(origin);
+    TypeElement resolved = Mockito.mock(TypeElement.class);
+    Elements elementUtils = Mockito.mock(Elements.class);
+    Mockito.when(elementUtils.getTypeElement("example.Origin")).thenReturn(resolved);
+
+    TypeSpec test = TypeSpec.classBuilder("Test")
+        .originatingElementRetention(TypeSpec.ElementRetention.DESCRIPTOR)
+        .addOriginatingElement(method)
+        .build();
+    assertThat(test.originatingElements).isEmpty();
+    TypeSpec rebuilt = test.toBuilder().build();
+
+    JavaFile.builder("example", rebuilt).build().writeTo(filer, elementUtils);
+    Path testPath = fsRoot.resolve(fs.getPath("example", "Test.java"));
+    assertThat(filer.getOriginatingElements(testPath)).containsExactly(resolved);
+  }
+
+  @Test public void filerPassesWeaklyHeldOriginatingElements() throws IOException {
+    Element outerElement = Mockito.mock(Element.class);
+    Element innerElement = Mockito.mock(Element.class);
+    TypeSpec test = TypeSpec.classBuilder("Test")
+        .originatingElementRetention(TypeSpec.ElementRetention.WEAK)
+        .addOriginatingElement(outerElement)
+        .addType(TypeSpec.classBuilder("Inner")
+            .addOriginatingElement(innerElement)
+            .build())
+        .build();
+    assertThat(test.originatingElements).containsExactly(outerElement, innerElement).inOrder();
+
+    JavaFile.builder("example", test).build().writeTo(filer);
+    Path testPath = fsRoot.resolve(fs.getPath("example", "Test.java"));
+    assertThat(filer.getOriginatingElements(testPath)).containsExactly(outerElement, innerElement);
+  }
+
   @Test public void filerClassesWithTabIndent() throws IOException {
     TypeSpec test = TypeSpec.classBuilder("Test")
         .addField(Date.class, "madeFreshDate")
@@ -225,4 +278,82 @@ public final class FileWritingTest {
     // Cast to avoid ambiguity between assertThat(Path) and assertThat(Iterable<?>)
     assertThat((Iterable<?>) filePath).isEqualTo(fsRoot.resolve(fs.getPath("foo", "Taco.java")));
   }
+
+  @Test public void writeToAsync() throws Exception {
+    JavaFile javaFile = JavaFile.builder("foo", TypeSpec.classBuilder("Taco").build())
+        .addFileComment("Pi\u00f1ata\u00a1")
+        .build();
+    List<Runnable> tasks = new ArrayList<>();
+    CompletableFuture<Path> future = javaFile.writeToAsync(fsRoot, tasks::add);
+    // Nothing is rendered or written until the executor runs the task.
+    assertThat(tasks).hasSize(1);
+    assertThat(Files.exists(fsRoot.resolve("foo"))).isFalse();
+
+    tasks.get(0).run();
+    Path filePath = future.get(10, TimeUnit.SECONDS);
+    assertThat((Iterable<?>) filePath).isEqualTo(fsRoot.resolve(fs.getPath("foo", "Taco.java")));
+    assertThat(new String(Files.readAllBytes(filePath), UTF_8)).isEqualTo(javaFile.toString());
+  }
+
+  @Test public void writeToAsyncManyFiles() throws Exception {
+    List<JavaFile> javaFiles = new ArrayList<>();
+    List<CompletableFuture<Path>> futures = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      JavaFile javaFile = JavaFile.builder("foo.p" + (i % 5), TypeSpec.classBuilder("Taco" + i)
+          .addField(String.class, "name")
+          .build()).build();
+      javaFiles.add(javaFile);
+      futures.add(javaFile.writeToAsync(tmp.getRoot().toPath(), ForkJoinPool.commonPool()));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .get(30, TimeUnit.SECONDS);
+    for (int i = 0; i < javaFiles.size(); i++) {
+      assertThat(new String(Files.readAllBytes(futures.get(i).get()), UTF_8))
+          .isEqualTo(javaFiles.get(i).toString());
+    }
+  }
+
+  @Test public void writeToAsyncWritesOnExecutorService() throws Exception {
+    JavaFile javaFile = JavaFile.builder("foo", TypeSpec.classBuilder("Taco").build()).build();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    try {
+      Path path = javaFile.writeToAsync(tmp.getRoot().toPath(), executor)
+          .get(10, TimeUnit.SECONDS);
+      assertThat(new String(Files.readAllBytes(path), UTF_8)).isEqualTo(javaFile.toString());
+      // One task renders the file, at least one more performs the channel's write.
+      assertThat(executor.getTaskCount()).isAtLeast(2L);
+      assertThat(executor.isShutdown()).isFalse();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test public void writeToAsyncWithCharsetReplacesExistingFile() throws Exception {
+    JavaFile javaFile = JavaFile.builder("foo", TypeSpec.classBuilder("Taco").build())
+        .addFileComment("Pi\u00f1ata\u00a1")
+        .build();
+    Path filePath = fsRoot.resolve(fs.getPath("foo", "Taco.java"));
+    Files.createDirectories(filePath.getParent());
+    Files.write(filePath, new byte[10_000]);
+
+    javaFile.writeToAsync(fsRoot, ISO_8859_1, Runnable::run).get(10, TimeUnit.SECONDS);
+    assertThat(new String(Files.readAllBytes(filePath), ISO_8859_1))
+        .isEqualTo(javaFile.toString());
+  }
+
+  @Test public void writeToAsyncPathNotDirectory() throws Exception {
+    JavaFile javaFile = JavaFile.builder("example", TypeSpec.classBuilder("Test").build()).build();
+    Path path = fs.getPath("/foo/bar");
+    Files.createDirectories(path.getParent());
+    Files.createFile(path);
+    try {
+      javaFile.writeToAsync(path, Runnable::run).get(10, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+      assertThat(e.getCause()).hasMessageThat()
+          .isEqualTo("path /foo/bar exists but is not a directory.");
+    }
+  }
 }
@@ -112,6 +112,116 @@ public final class JavaFileTest {
         .toString(); // don't look at the generated code...
   }
 
+  @Test public void importStaticAcrossReferencedChildBlock() {
+    CodeBlock max = CodeBlock.builder()
+        .add(".max($L, $L)", 1, 2)
+        .add(" + $L + $L + $L", 3, 4, 5)
+        .build();
+    CodeBlock statement = CodeBlock.builder()
+        .add("int x = $T", Math.class)
+        .add(max)
+        .build();
+    JavaFile source = JavaFile.builder("com.squareup.tacos",
+        TypeSpec.classBuilder("Taco")
+            .addStaticBlock(CodeBlock.builder().addStatement(statement).build())
+            .build())
+        .addStaticImport(Math.class, "max")
+        .build();
+    assertThat(source.toString()).isEqualTo(""
+        + "package com.squareup.tacos;\n"
+        + "\n"
+        + "import static java.lang.Math.max;\n"
+        + "\n"
+        + "class Taco {\n"
+        + "  static {\n"
+        + "    int x = max(1, 2) + 3 + 4 + 5;\n"
+        + "  }\n"
+        + "}\n");
+  }
+
+  @Test public void lookupNameFollowsTypeVariableScope() {
+    ClassName widget = ClassName.get("com.other", "Widget");
+    MethodSpec before = MethodSpec.methodBuilder("before")
+        .returns(widget)
+        .addCode("return null;\n")
+        .build();
+    MethodSpec masked = MethodSpec.methodBuilder("masked")
+        .addTypeVariable(TypeVariableName.get("Widget"))
+        .returns(widget)
+        .addCode("return null;\n")
+        .build();
+    MethodSpec after = MethodSpec.methodBuilder("after")
+        .returns(widget)
+        .addCode("return null;\n")
+        .build();
+    JavaFile source = JavaFile.builder("com.squareup.tacos",
+        TypeSpec.classBuilder("Taco")
+            .addMethod(before)
+            .addMethod(masked)
+            .addMethod(after)
+            .build())
+        .build();
+    assertThat(source.toString()).isEqualTo(""
+        + "package com.squareup.tacos;\n"
+        + "\n"
+        + "import com.other.Widget;\n"
+        + "\n"
+        + "class Taco {\n"
+        + "  Widget before() {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "\n"
+        + "  <Widget> com.other.Widget masked() {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "\n"
+        + "  Widget after() {\n"
+        + "    return null;\n"
+        + "  }\n"
+        + "}\n");
+  }
+
+  @Test public void nestedNameShadowingIsRestored() {
+    ClassName outerA = ClassName.get("com.squareup.tacos", "Outer", "A");
+    ClassName innerA = ClassName.get("com.squareup.tacos", "Outer", "B", "A");
+    JavaFile source = JavaFile.builder("com.squareup.tacos",
+        TypeSpec.classBuilder("Outer")
+            .addField(outerA, "first")
+            .addType(TypeSpec.classBuilder("A").build())
+            .addType(TypeSpec.classBuilder("B")
+                .addField(outerA, "outer")
+                .addField(innerA, "inner")
+                .addType(TypeSpec.classBuilder("A").build())
+                .build())
+            .addType(TypeSpec.classBuilder("C")
+                .addField(outerA, "last")
+                .build())
+            .build())
+        .build();
+    assertThat(source.toString()).isEqualTo(""
+        + "package com.squareup.tacos;\n"
+        + "\n"
+        + "class Outer {\n"
+        + "  A first;\n"
+        + "\n"
+        + "  class A {\n"
+        + "  }\n"
+        + "\n"
+        + "  class B {\n"
+        + "    Outer.A outer;\n"
+        + "\n"
+        + "    A inner;\n"
+        + "\n"
+        + "    class A {\n"
+        + "    }\n"
+        + "  }\n"
+        + "\n"
+        + "  class C {\n"
+        + "    A last;\n"
+        + "  }\n"
+        + "}\n");
+  }
+
   @Test public void importStaticMixed() {
     JavaFile source = JavaFile.builder("com.squareup.tacos",
         TypeSpec.classBuilder("Taco")
@@ -1053,4 +1163,44 @@ public final class JavaFileTest {
         + "  }\n"
         + "}\n");
   }
+
+  @Test public void textBlocks() {
+    JavaFile javaFile = JavaFile.builder("com.squareup.tacos",
+        TypeSpec.classBuilder("Taco")
+            .addField(FieldSpec.builder(String.class, "QUERY")
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .initializer("$S", "SELECT *\n  FROM taco\n")
+                .build())
+            .addMethod(MethodSpec.methodBuilder("name")
+                .returns(String.class)
+                .addStatement("return $S", "single line\n")
+                .build())
+            .build())
+        .skipJavaLangImports(true)
+        .textBlocks(true)
+        .build();
+    assertThat(javaFile.toString()).isEqualTo(""
+        + "package com.squareup.tacos;\n"
+        + "\n"
+        + "class Taco {\n"
+        + "  static final String QUERY = \"\"\"\n"
+        + "      SELECT *\n"
+        + "        FROM taco\n"
+        + "      \"\"\";\n"
+        + "\n"
+        + "  String name() {\n"
+        + "    return \"single line\\n\";\n"
+        + "  }\n"
+        + "}\n");
+    assertThat(javaFile.toBuilder().build().textBlocks).isTrue();
+  }
+
+  @Test public void toBuilderKeepsStaticImports() {
+    TypeSpec taco = TypeSpec.classBuilder("Taco").build();
+    JavaFile javaFile = JavaFile.builder("com.squareup.tacos", taco)
+        .addStaticImport(Math.class, "max")
+        .build();
+    assertThat(javaFile.toBuilder().build().toString()).isEqualTo(javaFile.toString());
+    assertThat(javaFile.toBuilder().staticImports).containsExactly("java.lang.Math.max");
+  }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class JfrEventsTest {
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  private final JavaFile file = JavaFile.builder("com.squareup.tacos",
+      TypeSpec.classBuilder("Taco")
+          .addMethod(MethodSpec.methodBuilder("eat")
+              .addStatement("$T.out.println($S)", System.class, "crunch")
+              .build())
+          .build())
+      .build();
+
+  private List<RecordedEvent> record(String eventName, RecordedAction action) throws Exception {
+    Path dump = tmp.newFile("recording.jfr").toPath();
+    try (Recording recording = new Recording()) {
+      recording.enable(eventName).withThreshold(Duration.ZERO);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(dump);
+    }
+    List<RecordedEvent> events = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+      if (event.getEventType().getName().equals(eventName)) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  @Test public void renderEvents() throws Exception {
+    String[] source = new String[1];
+    List<RecordedEvent> events = record("com.squareup.javapoet.Render",
+        () -> source[0] = file.toString());
+
+    assertThat(events).hasSize(2);
+    assertThat(events.get(0).getString("file")).isEqualTo("com.squareup.tacos.Taco");
+    assertThat(events.get(0).getString("pass")).isEqualTo("IMPORTS");
+    assertThat(events.get(1).getString("pass")).isEqualTo("OUTPUT");
+    assertThat(events.get(1).getLong("characters")).isEqualTo(source[0].length());
+  }
+
+  @Test public void writeEvent() throws Exception {
+    Path directory = tmp.newFolder().toPath();
+    Path[] written = new Path[1];
+    List<RecordedEvent> events = record("com.squareup.javapoet.Write",
+        () -> written[0] = file.writeToPath(directory));
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getString("file")).isEqualTo("com.squareup.tacos.Taco");
+    assertThat(events.get(0).getString("destination")).isEqualTo(written[0].toString());
+    assertThat(events.get(0).getLong("bytes")).isEqualTo(Files.size(written[0]));
+  }
+
+  @Test public void parseEventsAreSampled() throws Exception {
+    int calls = JfrEventTypes.PARSE_SAMPLE_RATE * 50;
+    List<RecordedEvent> events = record("com.squareup.javapoet.ParseFormat", () -> {
+      CodeBlock.Builder builder = CodeBlock.builder();
+      for (int i = 0; i < calls; i++) {
+        builder.add("$T.out.println($S);\n", System.class, "crunch");
+      }
+    });
+
+    assertThat(events).isNotEmpty();
+    assertThat(events.size()).isLessThan(calls / 4);
+    assertThat(events.get(0).getInt("argumentCount")).isEqualTo(2);
+  }
+
+  @Test public void eventsAreOnlyCreatedWhileEnabled() throws Exception {
+    assertThat(JfrEventTypes.beginRender()).isNull();
+    assertThat(JfrEventTypes.beginWrite()).isNull();
+    try (Recording recording = new Recording()) {
+      recording.enable("com.squareup.javapoet.Render");
+      recording.start();
+      assertThat(JfrEventTypes.beginRender()).isInstanceOf(JfrEventTypes.Render.class);
+      assertThat(JfrEventTypes.beginWrite()).isNull();
+      recording.stop();
+    }
+    assertThat(JfrEventTypes.beginRender()).isNull();
+  }
+
+  @Test public void codeBlocksDoNotLoadFlightRecorder() throws Exception {
+    Process process = new ProcessBuilder(
+        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+        "-Xlog:class+load=info",
+        "-cp", System.getProperty("java.class.path"),
+        FirstCodeBlock.class.getName())
+        .redirectErrorStream(true)
+        .start();
+    String output = new String(process.getInputStream().readAllBytes(), UTF_8);
+    assertThat(process.waitFor()).isEqualTo(0);
+    assertThat(output).contains("com.squareup.javapoet.CodeBlock ");
+    assertThat(output).doesNotContain("jdk.jfr.");
+  }
+
+  /** Builds one code block in a fresh JVM. */
+  public static final class FirstCodeBlock {
+    public static void main(String[] args) {
+      CodeBlock.of("$L", 1);
+    }
+  }
+
+  @Test public void disabledByDefault() throws Exception {
+    Path dump = tmp.newFile("recording.jfr").toPath();
+    try (Recording recording = new Recording()) {
+      recording.start();
+      file.toString();
+      recording.stop();
+      recording.dump(dump);
+    }
+    for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+      assertThat(event.getEventType().getName()).doesNotContain("javapoet");
+    }
+  }
+
+  private interface RecordedAction {
+    void run() throws IOException;
+  }
+}
@@ -343,6 +343,35 @@ public final class MethodSpecTest {
         + "}\n");
   }
 
+  @Test public void javadocIsReusedWithoutParameterJavadoc() {
+    MethodSpec methodSpec = MethodSpec.methodBuilder("getTaco")
+        .addParameter(TypeName.DOUBLE, "money")
+        .addJavadoc("Gets the best Taco\n")
+        .build();
+    assertThat(methodSpec.javadocWithParameters).isSameInstanceAs(methodSpec.javadoc);
+    assertThat(methodSpec.javadoc).isEqualTo(CodeBlock.of("Gets the best Taco\n"));
+    assertThat(methodSpec.toString()).isEqualTo(methodSpec.toString());
+  }
+
+  @Test public void parameterJavadocLeavesMethodJavadocUnchanged() {
+    MethodSpec methodSpec = MethodSpec.methodBuilder("getTaco")
+        .addParameter(ParameterSpec.builder(TypeName.DOUBLE, "money")
+            .addJavadoc("the amount required to buy the taco.\n")
+            .build())
+        .addJavadoc("Gets the best Taco money can buy.\n")
+        .build();
+    assertThat(methodSpec.javadoc).isEqualTo(CodeBlock.of("Gets the best Taco money can buy.\n"));
+    assertThat(methodSpec.javadocWithParameters).isEqualTo(CodeBlock.builder()
+        .add("Gets the best Taco money can buy.\n")
+        .add("\n")
+        .add("@param money the amount required to buy the taco.\n")
+        .build());
+
+    String source = methodSpec.toString();
+    assertThat(methodSpec.toString()).isEqualTo(source);
+    assertThat(methodSpec.toBuilder().build().toString()).isEqualTo(source);
+  }
+
   @Test public void duplicateExceptionsIgnored() {
     ClassName ioException = ClassName.get(IOException.class);
     ClassName timeoutException = ClassName.get(TimeoutException.class);
@@ -482,6 +511,15 @@ public final class MethodSpecTest {
         "}\n");
   }
 
+  @Test public void modifiersIterateInDeclarationOrder() {
+    MethodSpec method = MethodSpec.methodBuilder("taco")
+        .addModifiers(Modifier.SYNCHRONIZED, Modifier.STATIC, Modifier.PUBLIC)
+        .build();
+    assertThat(method.modifiers)
+        .containsExactly(Modifier.PUBLIC, Modifier.STATIC, Modifier.SYNCHRONIZED).inOrder();
+    assertThat(method.toString()).isEqualTo("public static synchronized void taco() {\n}\n");
+  }
+
   private static CodeBlock named(String format, Map<String, ?> args){
     return CodeBlock.builder().addNamed(format, args).build();
   }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.lang.model.element.Modifier;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering a file whose top-level type declares many small nested types, so that the
+ * cost of emitting each type's declaration header dominates. Run with:
+ *
+ * <pre>
+ *   ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/test-classpath.txt) \
+ *       org.openjdk.jmh.Main NestedTypeBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NestedTypeBenchmark {
+  @Param({"class", "record"})
+  public String kind;
+
+  @Param({"500"})
+  public int nestedTypeCount;
+
+  private JavaFile file;
+
+  @Setup public void setUp() {
+    ClassName comparable = ClassName.get(Comparable.class);
+    TypeSpec.Builder outer = TypeSpec.classBuilder("Menu");
+    for (int i = 0; i < nestedTypeCount; i++) {
+      String name = "Item" + i;
+      TypeSpec.Builder nested = kind.equals("record")
+          ? TypeSpec.recordBuilder(name)
+          : TypeSpec.classBuilder(name).addModifiers(Modifier.STATIC);
+      nested.addModifiers(Modifier.PUBLIC)
+          .addSuperinterface(ParameterizedTypeName.get(comparable, ClassName.get("", name)))
+          .addField(String.class, "name")
+          .addField(int.class, "price")
+          .addMethod(MethodSpec.methodBuilder("compareTo")
+              .addAnnotation(Override.class)
+              .addModifiers(Modifier.PUBLIC)
+              .returns(int.class)
+              .addParameter(ClassName.get("", name), "other")
+              .addStatement("return $T.compare(price, other.price)", Integer.class)
+              .build());
+      outer.addType(nested.build());
+    }
+    file = JavaFile.builder("com.squareup.tacos", outer.build()).build();
+  }
+
+  @Benchmark public String render() {
+    return file.toString();
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public final class PersistentVectorTest {
+  @Test public void appendAcrossLevels() {
+    PersistentVector.MutableList<Integer> list = new PersistentVector.MutableList<>();
+    List<Integer> expected = new ArrayList<>();
+    // 32 * 32 + 33 elements needs a root two levels deep.
+    for (int i = 0; i < 32 * 32 + 33; i++) {
+      list.add(i);
+      expected.add(i);
+    }
+    assertThat(list).containsExactlyElementsIn(expected).inOrder();
+    assertThat(list.snapshot()).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  @Test public void snapshotsAreUnaffectedByLaterEdits() {
+    PersistentVector.MutableList<Integer> list = new PersistentVector.MutableList<>();
+    for (int i = 0; i < 100; i++) list.add(i);
+    PersistentVector<Integer> before = list.snapshot();
+
+    list.set(3, -3);
+    list.set(99, -99);
+    list.add(100);
+    PersistentVector<Integer> after = list.snapshot();
+
+    assertThat(before).hasSize(100);
+    assertThat(before.get(3)).isEqualTo(3);
+    assertThat(before.get(99)).isEqualTo(99);
+    assertThat(after).hasSize(101);
+    assertThat(after.get(3)).isEqualTo(-3);
+    assertThat(after.get(99)).isEqualTo(-99);
+    assertThat(after.get(100)).isEqualTo(100);
+  }
+
+  @Test public void adoptedVectorIsCopiedOnWrite() {
+    PersistentVector.MutableList<String> first = new PersistentVector.MutableList<>();
+    for (int i = 0; i < 1000; i++) first.add("s" + i);
+    PersistentVector<String> vector = first.snapshot();
+
+    PersistentVector.MutableList<String> second = new PersistentVector.MutableList<>();
+    second.addAll(vector);
+    second.set(500, "edited");
+    second.add("appended");
+    second.remove(0);
+
+    assertThat(vector.get(500)).isEqualTo("s500");
+    assertThat(vector).hasSize(1000);
+    assertThat(second.get(499)).isEqualTo("edited");
+    assertThat(second.get(0)).isEqualTo("s1");
+    assertThat(second).hasSize(1000);
+  }
+
+  @Test public void matchesArrayList() {
+    Random random = new Random(0);
+    PersistentVector.MutableList<Integer> list = new PersistentVector.MutableList<>();
+    List<Integer> expected = new ArrayList<>();
+    List<PersistentVector<Integer>> snapshots = new ArrayList<>();
+    List<List<Integer>> expectedSnapshots = new ArrayList<>();
+
+    for (int i = 0; i < 5000; i++) {
+      int operation = random.nextInt(100);
+      if (operation < 60 || expected.isEmpty()) {
+        list.add(i);
+        expected.add(i);
+      } else if (operation < 80) {
+        int index = random.nextInt(expected.size());
+        assertThat(list.set(index, -i)).isEqualTo(expected.set(index, -i));
+      } else if (operation < 88) {
+        int index = random.nextInt(expected.size() + 1);
+        list.add(index, i);
+        expected.add(index, i);
+      } else if (operation < 96) {
+        int index = random.nextInt(expected.size());
+        assertThat(list.remove(index)).isEqualTo(expected.remove(index));
+      } else {
+        snapshots.add(list.snapshot());
+        expectedSnapshots.add(new ArrayList<>(expected));
+      }
+    }
+
+    assertThat(list).containsExactlyElementsIn(expected).inOrder();
+    for (int i = 0; i < snapshots.size(); i++) {
+      assertThat(snapshots.get(i)).containsExactlyElementsIn(expectedSnapshots.get(i)).inOrder();
+      assertThat(snapshots.get(i)).isEqualTo(expectedSnapshots.get(i));
+    }
+  }
+
+  @Test public void iterator() {
+    PersistentVector.MutableList<Integer> list = new PersistentVector.MutableList<>();
+    for (int i = 0; i < 70; i++) list.add(i);
+    Iterator<Integer> iterator = list.snapshot().iterator();
+    for (int i = 0; i < 70; i++) {
+      assertThat(iterator.next()).isEqualTo(i);
+    }
+    assertThat(iterator.hasNext()).isFalse();
+  }
+
+  @Test public void nullElements() {
+    PersistentVector.MutableList<String> list = new PersistentVector.MutableList<>();
+    list.addAll(Arrays.asList("a", null, "c"));
+    assertThat(list.snapshot()).containsExactly("a", null, "c").inOrder();
+  }
+
+  @Test public void snapshotIsImmutable() {
+    PersistentVector.MutableList<String> list = new PersistentVector.MutableList<>();
+    list.add("a");
+    try {
+      list.snapshot().add("b");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test public void outOfBounds() {
+    PersistentVector.MutableList<String> list = new PersistentVector.MutableList<>();
+    list.add("a");
+    try {
+      list.get(1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      list.snapshot().get(-1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  @Test public void specsShareStructureWithTheirBuilders() {
+    TypeSpec.Builder builder = TypeSpec.classBuilder("Taco");
+    for (int i = 0; i < 100; i++) {
+      builder.addMethod(MethodSpec.methodBuilder("m" + i).build());
+    }
+    TypeSpec taco = builder.build();
+
+    TypeSpec.Builder edit = taco.toBuilder();
+    edit.methodSpecs.set(50, MethodSpec.methodBuilder("edited").build());
+    TypeSpec edited = edit.build();
+
+    assertThat(taco.methodSpecs.get(50).name).isEqualTo("m50");
+    assertThat(edited.methodSpecs.get(50).name).isEqualTo("edited");
+    assertThat(edited.methodSpecs.get(49)).isSameInstanceAs(taco.methodSpecs.get(49));
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class RenderCacheTest {
+  private final RenderCache renderCache = new RenderCache();
+  private final ClassName other = ClassName.get("com.other", "Widget");
+
+  private MethodSpec method(String name, String statement, Object... args) {
+    return MethodSpec.methodBuilder(name)
+        .addModifiers(Modifier.PUBLIC)
+        .addStatement(statement, args)
+        .build();
+  }
+
+  private TypeSpec taco() {
+    return TypeSpec.classBuilder("Taco")
+        .addField(FieldSpec.builder(other, "widget", Modifier.PRIVATE).build())
+        .addMethod(method("a", "$T.out.println($S)", System.class, "a"))
+        .addMethod(method("b", "widget.spin()"))
+        .addMethod(method("c", "$T c = widget", other))
+        .addType(TypeSpec.classBuilder("Shell")
+            .addMethod(method("crunch", "$T shell = new $T()", other, other))
+            .build())
+        .build();
+  }
+
+  /** Renders {@code typeSpec} with the cache and checks the result against an uncached render. */
+  private String render(TypeSpec typeSpec) {
+    JavaFile javaFile = JavaFile.builder("com.squareup.tacos", typeSpec)
+        .renderCache(renderCache)
+        .build();
+    String cached = javaFile.toString();
+    assertThat(cached).isEqualTo(javaFile.toBuilder().renderCache(null).build().toString());
+    return cached;
+  }
+
+  @Test public void firstRenderMisses() {
+    render(taco());
+    // Five members of Taco and one of Shell, once for each of the two passes.
+    assertThat(renderCache.missCount()).isEqualTo(12);
+    assertThat(renderCache.hitCount()).isEqualTo(0);
+    assertThat(renderCache.hitRate()).isEqualTo(0.0);
+    assertThat(renderCache.size()).isEqualTo(6);
+  }
+
+  @Test public void unchangedMembersHitAfterEdit() {
+    TypeSpec taco = taco();
+    render(taco);
+
+    TypeSpec.Builder builder = taco.toBuilder();
+    builder.methodSpecs.set(1, method("b", "widget.spin($L)", 2));
+    String edited = render(builder.build());
+    assertThat(edited).contains("widget.spin(2);");
+
+    // The field, methods a and c and the nested type Shell are copied, in both passes.
+    assertThat(renderCache.hitCount()).isEqualTo(8);
+    assertThat(renderCache.missCount()).isEqualTo(14);
+    assertThat(renderCache.hitRate()).isWithin(1e-9).of(8.0 / 22.0);
+  }
+
+  @Test public void identicalRenderIsServedFromCache() {
+    TypeSpec taco = taco();
+    String first = render(taco);
+    String second = render(taco);
+    assertThat(second).isEqualTo(first);
+    // Shell's method is not requested when Shell itself is a hit.
+    assertThat(renderCache.hitCount()).isEqualTo(10);
+  }
+
+  @Test public void importChangeInvalidates() {
+    TypeSpec taco = taco();
+    render(taco);
+
+    String edited = render(taco.toBuilder()
+        .addMethod(method("d", "$T<$T> d = null", List.class, String.class))
+        .build());
+    assertThat(edited).contains("import java.util.List;");
+
+    // The import collecting pass still hits, but the new import invalidates the output pass.
+    assertThat(renderCache.hitCount()).isEqualTo(5);
+  }
+
+  @Test public void nestedTypeNameChangeInvalidates() {
+    TypeSpec taco = taco();
+    render(taco);
+
+    // A nested type named Widget shadows com.other.Widget, which must now be qualified.
+    String edited = render(taco.toBuilder()
+        .addType(TypeSpec.classBuilder("Widget").build())
+        .build());
+    assertThat(edited).contains("private com.other.Widget widget;");
+    assertThat(edited).contains("com.other.Widget shell = new com.other.Widget();");
+  }
+
+  @Test public void typeVariableChangeInvalidates() {
+    TypeSpec taco = taco();
+    render(taco);
+
+    String edited = render(taco.toBuilder()
+        .addTypeVariable(TypeVariableName.get("Widget"))
+        .build());
+    assertThat(edited).contains("private com.other.Widget widget;");
+  }
+
+  @Test public void sharedMemberInDifferentFiles() {
+    MethodSpec shared = method("shared", "$T s = null", other);
+    render(TypeSpec.classBuilder("Taco").addMethod(shared).build());
+    String burrito = render(TypeSpec.classBuilder("Burrito")
+        .addType(TypeSpec.classBuilder("Widget").build())
+        .addMethod(shared)
+        .build());
+    assertThat(burrito).contains("com.other.Widget s = null;");
+  }
+
+  @Test public void indentChangeInvalidates() {
+    TypeSpec taco = taco();
+    render(taco);
+    String tabbed = JavaFile.builder("com.squareup.tacos", taco)
+        .renderCache(renderCache)
+        .indent("\t")
+        .build()
+        .toString();
+    assertThat(tabbed).contains("\tpublic void a() {\n\t\tSystem.out.println(\"a\");\n\t}\n");
+  }
+
+  @Test public void clear() {
+    TypeSpec taco = taco();
+    render(taco);
+    renderCache.clear();
+    assertThat(renderCache.size()).isEqualTo(0);
+    render(taco);
+    assertThat(renderCache.hitCount()).isEqualTo(0);
+    assertThat(renderCache.missCount()).isEqualTo(24);
+  }
+
+  @Test public void contextsAreReleasedWithTheirMembers() throws InterruptedException {
+    List<TypeSpec> typeSpecs = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      typeSpecs.add(TypeSpec.classBuilder("Taco" + i).addMethod(method("a", "return")).build());
+      render(typeSpecs.get(i));
+    }
+    // Each file has an imports pass and an output pass.
+    System.gc();
+    assertThat(renderCache.contextCount()).isEqualTo(20);
+
+    typeSpecs.clear();
+
+    for (int attempt = 0; attempt < 50 && renderCache.contextCount() > 0; attempt++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertThat(renderCache.size()).isEqualTo(0);
+    assertThat(renderCache.contextCount()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.Modifier;
+import org.junit.After;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public final class RenderListenerTest {
+  private final RecordingListener listener = new RecordingListener();
+
+  @After public void tearDown() {
+    JavaFile.setDefaultRenderListener(null);
+  }
+
+  private JavaFile tacoFile() {
+    FieldSpec widget = FieldSpec.builder(ClassName.get("com.other", "Widget"), "widget")
+        .addModifiers(Modifier.PRIVATE)
+        .build();
+    MethodSpec eat = MethodSpec.methodBuilder("eat")
+        .addStatement("$T.out.println($S +$W$S +$W$S +$W$S)", System.class,
+            "a long string that goes on", "and on and on", "past the column limit",
+            "so that the line wraps")
+        .build();
+    TypeSpec salsa = TypeSpec.classBuilder("Salsa").build();
+    TypeSpec taco = TypeSpec.classBuilder("Taco")
+        .addField(widget)
+        .addMethod(eat)
+        .addType(salsa)
+        .build();
+    return JavaFile.builder("com.squareup.tacos", taco).build();
+  }
+
+  @Test public void reportsMembersForBothPasses() {
+    JavaFile file = tacoFile().toBuilder().renderListener(listener).build();
+    file.toString();
+
+    TypeSpec taco = file.typeSpec;
+    assertThat(listener.members).containsExactly(
+        "IMPORTS " + taco.fieldSpecs.get(0),
+        "IMPORTS " + taco.methodSpecs.get(0),
+        "IMPORTS " + taco.typeSpecs.get(0),
+        "OUTPUT " + taco.fieldSpecs.get(0),
+        "OUTPUT " + taco.methodSpecs.get(0),
+        "OUTPUT " + taco.typeSpecs.get(0)).inOrder();
+  }
+
+  @Test public void reportsFileStatistics() {
+    JavaFile file = tacoFile().toBuilder().renderListener(listener).build();
+    String source = file.toString();
+
+    assertThat(listener.files).containsExactly(file);
+    RenderListener.Statistics statistics = listener.statistics.get(0);
+    assertThat(statistics.characterCount).isEqualTo(source.length());
+    assertThat(statistics.lineCount).isEqualTo(source.split("\n", -1).length - 1);
+    assertThat(statistics.importCount).isEqualTo(2);
+    assertThat(statistics.importCandidateCount).isEqualTo(2);
+    assertThat(statistics.typeLookupCount).isEqualTo(4);
+    assertThat(statistics.lineWrapCount).isEqualTo(1);
+    assertThat(statistics.importPassNanos).isAtLeast(0L);
+    assertThat(statistics.outputPassNanos).isAtLeast(0L);
+  }
+
+  @Test public void importCountExcludesSkippedJavaLangImports() {
+    JavaFile file = tacoFile().toBuilder()
+        .skipJavaLangImports(true)
+        .renderListener(listener)
+        .build();
+    file.toString();
+
+    RenderListener.Statistics statistics = listener.statistics.get(0);
+    assertThat(statistics.importCount).isEqualTo(1);
+    assertThat(statistics.importCandidateCount).isEqualTo(2);
+  }
+
+  @Test public void cachedMembersAreCounted() {
+    RenderCache renderCache = new RenderCache();
+    JavaFile file = tacoFile().toBuilder()
+        .renderCache(renderCache)
+        .renderListener(listener)
+        .build();
+    file.toString();
+    file.toString();
+
+    assertThat(renderCache.hitCount()).isGreaterThan(0L);
+    assertThat(listener.members).hasSize(12);
+    RenderListener.Statistics rendered = listener.statistics.get(0);
+    RenderListener.Statistics copied = listener.statistics.get(1);
+    assertThat(copied.characterCount).isEqualTo(rendered.characterCount);
+    assertThat(copied.lineCount).isEqualTo(rendered.lineCount);
+    assertThat(copied.importCount).isEqualTo(rendered.importCount);
+    assertThat(copied.importCandidateCount).isEqualTo(rendered.importCandidateCount);
+    assertThat(copied.typeLookupCount).isEqualTo(4);
+    assertThat(copied.lineWrapCount).isEqualTo(1);
+  }
+
+  @Test public void defaultListener() {
+    JavaFile.setDefaultRenderListener(listener);
+    JavaFile file = tacoFile();
+    file.toString();
+    assertThat(listener.files).containsExactly(file);
+
+    RecordingListener fileListener = new RecordingListener();
+    JavaFile withOwnListener = file.toBuilder().renderListener(fileListener).build();
+    withOwnListener.toString();
+    assertThat(listener.files).containsExactly(file);
+    assertThat(fileListener.files).containsExactly(withOwnListener);
+
+    JavaFile.setDefaultRenderListener(null);
+    file.toString();
+    assertThat(listener.files).hasSize(1);
+  }
+
+  private static final class RecordingListener implements RenderListener {
+    final List<String> members = new ArrayList<>();
+    final List<JavaFile> files = new ArrayList<>();
+    final List<Statistics> statistics = new ArrayList<>();
+
+    @Override public void memberRendered(JavaFile file, Pass pass, Object member, long nanos) {
+      members.add(pass + " " + member);
+    }
+
+    @Override public void fileRendered(JavaFile file, Statistics statistics) {
+      files.add(file);
+      this.statistics.add(statistics);
+    }
+  }
+}
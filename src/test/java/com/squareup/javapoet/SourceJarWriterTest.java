@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+public final class SourceJarWriterTest {
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After public void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private static JavaFile javaFile(String packageName, String name) {
+    return JavaFile.builder(packageName, TypeSpec.classBuilder(name)
+        .addField(String.class, "name")
+        .build()).build();
+  }
+
+  /** Returns the jar's entries in order, mapping each name to its content. */
+  private static Map<String, String> entries(byte[] jar) throws IOException {
+    Map<String, String> result = new LinkedHashMap<>();
+    try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(jar))) {
+      for (ZipEntry entry; (entry = in.getNextEntry()) != null; ) {
+        result.put(entry.getName(), new String(in.readAllBytes(), UTF_8));
+      }
+    }
+    return result;
+  }
+
+  @Test public void writeToPath() throws IOException {
+    JavaFile taco = javaFile("com.example", "Taco");
+    JavaFile burrito = javaFile("", "Burrito");
+    Path jar = tmp.getRoot().toPath().resolve("sources.jar");
+    try (SourceJarWriter writer = SourceJarWriter.open(jar, SourceJarWriter.Compression.STORED)) {
+      writer.write(taco);
+      writer.write(burrito);
+    }
+
+    try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+      ZipEntry entry = zipFile.getEntry("com/example/Taco.java");
+      assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+      assertThat(new String(zipFile.getInputStream(entry).readAllBytes(), UTF_8))
+          .isEqualTo(taco.toString());
+      entry = zipFile.getEntry("Burrito.java");
+      assertThat(new String(zipFile.getInputStream(entry).readAllBytes(), UTF_8))
+          .isEqualTo(burrito.toString());
+      assertThat(zipFile.size()).isEqualTo(2);
+    }
+  }
+
+  @Test public void deflated() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (SourceJarWriter writer =
+        SourceJarWriter.open(bytes, SourceJarWriter.Compression.DEFLATED)) {
+      writer.write(javaFile("com.example", "Taco"));
+    }
+    try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertThat(in.getNextEntry().getMethod()).isEqualTo(ZipEntry.DEFLATED);
+    }
+    assertThat(entries(bytes.toByteArray()))
+        .containsExactly("com/example/Taco.java", javaFile("com.example", "Taco").toString());
+  }
+
+  @Test public void writeAllKeepsOrder() throws IOException {
+    List<JavaFile> javaFiles = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      javaFiles.add(javaFile("com.example.p" + (i % 7), "Taco" + i));
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (SourceJarWriter writer = SourceJarWriter.open(bytes, SourceJarWriter.Compression.STORED)) {
+      writer.writeAll(javaFiles, executor);
+    }
+
+    Map<String, String> expected = new LinkedHashMap<>();
+    for (JavaFile javaFile : javaFiles) {
+      expected.put(javaFile.relativePath(), javaFile.toString());
+    }
+    assertThat(entries(bytes.toByteArray())).containsExactlyEntriesIn(expected).inOrder();
+  }
+
+  @Test public void writeAllCancelsQueuedRendersWhenRenderFails() throws IOException {
+    List<String> rendered = new ArrayList<>();
+    RenderListener listener = new RenderListener() {
+      @Override public void fileRendered(JavaFile file, Statistics statistics) {
+        rendered.add(file.typeSpec.name);
+        if (file.typeSpec.name.equals("Taco0")) throw new IllegalStateException("boom");
+      }
+    };
+    List<JavaFile> javaFiles = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      javaFiles.add(javaFile("com.example", "Taco" + i).toBuilder()
+          .renderListener(listener)
+          .build());
+    }
+    // Renders the first file immediately and holds back the rest.
+    List<Runnable> queued = new ArrayList<>();
+    Executor renderExecutor = task -> {
+      if (rendered.isEmpty() && queued.isEmpty()) {
+        task.run();
+      } else {
+        queued.add(task);
+      }
+    };
+
+    try (SourceJarWriter writer = SourceJarWriter.open(
+        new ByteArrayOutputStream(), SourceJarWriter.Compression.STORED)) {
+      writer.writeAll(javaFiles, renderExecutor);
+      fail();
+    } catch (IllegalStateException expected) {
+      assertThat(expected).hasMessageThat().isEqualTo("boom");
+    }
+    assertThat(queued).hasSize(4);
+    queued.forEach(Runnable::run);
+    assertThat(rendered).containsExactly("Taco0");
+  }
+
+  @Test public void writeAllCancelsQueuedRendersWhenIterationFails() throws IOException {
+    List<String> rendered = new ArrayList<>();
+    RenderListener listener = new RenderListener() {
+      @Override public void fileRendered(JavaFile file, Statistics statistics) {
+        rendered.add(file.typeSpec.name);
+      }
+    };
+    List<JavaFile> javaFiles = new ArrayList<>();
+    javaFiles.add(javaFile("com.example", "Taco").toBuilder().renderListener(listener).build());
+    javaFiles.add(null);
+    List<Runnable> queued = new ArrayList<>();
+
+    try (SourceJarWriter writer = SourceJarWriter.open(
+        new ByteArrayOutputStream(), SourceJarWriter.Compression.STORED)) {
+      writer.writeAll(javaFiles, queued::add);
+      fail();
+    } catch (NullPointerException expected) {
+      assertThat(expected).hasMessageThat().isEqualTo("javaFile == null");
+    }
+    assertThat(queued).hasSize(1);
+    queued.forEach(Runnable::run);
+    assertThat(rendered).isEmpty();
+  }
+
+  @Test public void reproducible() throws IOException {
+    List<byte[]> jars = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (SourceJarWriter writer =
+          SourceJarWriter.open(bytes, SourceJarWriter.Compression.DEFLATED)) {
+        writer.writeAll(BenchmarkCorpus.all(BenchmarkCorpus.Size.SMALL), executor);
+      }
+      jars.add(bytes.toByteArray());
+    }
+    assertThat(jars.get(1)).isEqualTo(jars.get(0));
+  }
+
+  @Test public void concurrentWrites() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Map<String, String> expected = new LinkedHashMap<>();
+    try (SourceJarWriter writer = SourceJarWriter.open(bytes, SourceJarWriter.Compression.STORED)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        List<JavaFile> javaFiles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+          JavaFile javaFile = javaFile("com.example.t" + thread, "Taco" + i);
+          javaFiles.add(javaFile);
+          expected.put(javaFile.relativePath(), javaFile.toString());
+        }
+        futures.add(executor.submit(() -> {
+          for (JavaFile javaFile : javaFiles) {
+            writer.write(javaFile);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    }
+    assertThat(entries(bytes.toByteArray())).containsExactlyEntriesIn(expected);
+  }
+
+  @Test public void duplicateEntry() throws IOException {
+    try (SourceJarWriter writer = SourceJarWriter.open(
+        new ByteArrayOutputStream(), SourceJarWriter.Compression.STORED)) {
+      writer.write(javaFile("com.example", "Taco"));
+      try {
+        writer.write(javaFile("com.example", "Taco"));
+        fail();
+      } catch (ZipException expected) {
+        assertThat(expected).hasMessageThat()
+            .isEqualTo("duplicate entry: com/example/Taco.java");
+      }
+    }
+  }
+}
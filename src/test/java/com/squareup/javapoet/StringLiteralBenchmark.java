@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2026 Java Composer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.squareup.javapoet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.Modifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Character.isISOControl;
+
+/**
+ * Compares the escaping of {@code $S} arguments against the per-character implementation it
+ * replaced, and measures rendering a string-heavy file end to end. Run with:
+ *
+ * <pre>
+ *   ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/test-classpath.txt) \
+ *       org.openjdk.jmh.Main StringLiteralBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringLiteralBenchmark {
+  private final List<String> strings = new ArrayList<>();
+  private JavaFile stringHeavyFile;
+
+  @Setup public void setUp() {
+    for (int i = 0; i < 100; i++) {
+      strings.add("message_" + i);
+      strings.add("Could not find the taco with id " + i + ", please try again later.");
+      strings.add("SELECT id, name, price\n  FROM taco\n WHERE shop_id = ? AND name LIKE 'al pastor%'\n");
+      strings.add("{\"name\": \"taco\", \"toppings\": [\"salsa\", \"lime\"], \"price\": " + i + "}");
+      strings.add("C:\\tacos\\" + i + "\\menu.txt\tpiñata ¡olé! €" + i);
+    }
+
+    TypeSpec.Builder resources = TypeSpec.classBuilder("Strings");
+    for (int i = 0; i < strings.size(); i++) {
+      resources.addField(FieldSpec.builder(String.class, "S" + i)
+          .addModifiers(Modifier.STATIC, Modifier.FINAL)
+          .initializer("$S", strings.get(i))
+          .build());
+    }
+    stringHeavyFile = JavaFile.builder("com.squareup.tacos", resources.build()).build();
+  }
+
+  @State(Scope.Benchmark)
+  public static class Escaper {
+    @Param({"legacy", "table"})
+    public String escaper;
+  }
+
+  @Benchmark public void escapeStrings(Escaper escaper, Blackhole blackhole) {
+    boolean legacy = escaper.escaper.equals("legacy");
+    for (String string : strings) {
+      blackhole.consume(legacy
+          ? legacyStringLiteralWithDoubleQuotes(string, "  ")
+          : Util.stringLiteralWithDoubleQuotes(string, "  "));
+    }
+  }
+
+  @Benchmark public String renderStringHeavyFile() {
+    return stringHeavyFile.toString();
+  }
+
+  /** The escaping implementation before the ASCII lookup tables. */
+  private static String legacyStringLiteralWithDoubleQuotes(String value, String indent) {
+    StringBuilder result = new StringBuilder(value.length() + 2);
+    result.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\'') {
+        result.append("'");
+        continue;
+      }
+      if (c == '\"') {
+        result.append("\\\"");
+        continue;
+      }
+      result.append(legacyCharacterLiteralWithoutSingleQuotes(c));
+      if (c == '\n' && i + 1 < value.length()) {
+        result.append("\"\n").append(indent).append(indent).append("+ \"");
+      }
+    }
+    result.append('"');
+    return result.toString();
+  }
+
+  private static String legacyCharacterLiteralWithoutSingleQuotes(char c) {
+    switch (c) {
+      case '\b': return "\\b";
+      case '\t': return "\\t";
+      case '\n': return "\\n";
+      case '\f': return "\\f";
+      case '\r': return "\\r";
+      case '\"': return "\"";
+      case '\'': return "\\'";
+      case '\\': return "\\\\";
+      default:
+        return isISOControl(c) ? String.format("\\u%04x", (int) c) : Character.toString(c);
+    }
+  }
+}
@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
+import java.util.RandomAccess;
 import java.util.concurrent.Callable;
 
 import static com.google.common.truth.Truth.assertThat;
@@ -1210,6 +1211,135 @@ public final class TypeSpecTest {
     assertThat(outer.originatingElements).containsExactly(outerElement, innerElement);
   }
 
+  @Test public void originatingElementsOfDeeplyNestedTypes() {
+    Element[] elements = new Element[4];
+    TypeSpec type = null;
+    for (int i = elements.length - 1; i >= 0; i--) {
+      elements[i] = Mockito.mock(Element.class);
+      TypeSpec.Builder builder = TypeSpec.classBuilder("Level" + i)
+          .addOriginatingElement(elements[i]);
+      if (type != null) {
+        builder.addType(type);
+      }
+      type = builder.build();
+    }
+    TypeSpec inner = type.typeSpecs.get(0);
+    assertThat(inner.originatingElements).containsExactly(elements[1], elements[2], elements[3])
+        .inOrder();
+    assertThat(type.originatingElements).containsExactlyElementsIn(elements).inOrder();
+  }
+
+  @Test public void toBuilderKeepsRetentionOfNestedTypes() {
+    Element outerElement = Mockito.mock(Element.class);
+    Element weakElement = Mockito.mock(Element.class);
+    TypeElement descriptorElement = getElement(TypeSpecTest.class);
+    TypeSpec outer = TypeSpec.classBuilder("Outer")
+        .addOriginatingElement(outerElement)
+        .addType(TypeSpec.classBuilder("Weak")
+            .originatingElementRetention(TypeSpec.ElementRetention.WEAK)
+            .addOriginatingElement(weakElement)
+            .build())
+        .addType(TypeSpec.classBuilder("Descriptor")
+            .originatingElementRetention(TypeSpec.ElementRetention.DESCRIPTOR)
+            .addOriginatingElement(descriptorElement)
+            .build())
+        .build();
+
+    OriginatingElements rebuilt =
+        (OriginatingElements) outer.toBuilder().build().originatingElements;
+    // Nested elements are still held weakly or by descriptor.
+    assertThat(rebuilt.retained()).contains(outerElement);
+    assertThat(rebuilt.retained()).containsNoneOf(weakElement, descriptorElement);
+    assertThat(rebuilt.resolve(null)).doesNotContain(descriptorElement);
+    assertThat(rebuilt.resolve(compilation.getElements()))
+        .containsExactly(outerElement, weakElement, descriptorElement).inOrder();
+  }
+
+  @Test public void toBuilderRoundTripsWeakOriginatingElements() {
+    Element element = Mockito.mock(Element.class);
+    TypeSpec weak = TypeSpec.classBuilder("Weak")
+        .originatingElementRetention(TypeSpec.ElementRetention.WEAK)
+        .addOriginatingElement(element)
+        .build();
+
+    TypeSpec.Builder builder = weak.toBuilder();
+    assertThat(builder.originatingElements).containsExactly(element);
+    TypeSpec rebuilt = builder.build();
+    assertThat(rebuilt.originatingElements).containsExactly(element);
+    assertThat(((OriginatingElements) rebuilt.originatingElements).retained())
+        .doesNotContain(element);
+  }
+
+  @Test public void toBuilderRoundTripsDescriptorOriginatingElements() {
+    TypeElement element = getElement(TypeSpecTest.class);
+    TypeSpec descriptor = TypeSpec.classBuilder("Descriptor")
+        .originatingElementRetention(TypeSpec.ElementRetention.DESCRIPTOR)
+        .addOriginatingElement(element)
+        .build();
+
+    TypeSpec.Builder builder = descriptor.toBuilder();
+    assertThat(builder.originatingElements).isEmpty();
+    // Descriptors can't be listed as elements, so the builder keeps them as descriptors.
+    OriginatingElements rebuilt = (OriginatingElements) builder
+        .originatingElementRetention(TypeSpec.ElementRetention.STRONG)
+        .build()
+        .originatingElements;
+    assertThat(rebuilt).isEmpty();
+    assertThat(rebuilt.resolve(compilation.getElements())).containsExactly(element);
+  }
+
+  @Test public void toBuilderRetainsElementsWithTheNewRetention() {
+    Element element = Mockito.mock(Element.class);
+    TypeSpec strong = TypeSpec.classBuilder("Strong")
+        .addOriginatingElement(element)
+        .build();
+
+    OriginatingElements weakened = (OriginatingElements) strong.toBuilder()
+        .originatingElementRetention(TypeSpec.ElementRetention.WEAK)
+        .build()
+        .originatingElements;
+    assertThat(weakened).containsExactly(element);
+    assertThat(weakened.retained()).doesNotContain(element);
+  }
+
+  @Test public void toBuilderDoesNotRepeatNestedOriginatingElements() {
+    Element outerElement = Mockito.mock(Element.class);
+    Element innerElement = Mockito.mock(Element.class);
+    TypeSpec outer = TypeSpec.classBuilder("Outer")
+        .addOriginatingElement(outerElement)
+        .addType(TypeSpec.classBuilder("Inner")
+            .addOriginatingElement(innerElement)
+            .build())
+        .build();
+
+    assertThat(outer.toBuilder().originatingElements).containsExactly(outerElement);
+    assertThat(outer.toBuilder().build().originatingElements)
+        .containsExactly(outerElement, innerElement).inOrder();
+  }
+
+  @Test public void onlyStronglyHeldOriginatingElementsAreRandomAccess() {
+    Element outerElement = Mockito.mock(Element.class);
+    Element innerElement = Mockito.mock(Element.class);
+    TypeSpec inner = TypeSpec.classBuilder("Inner")
+        .addOriginatingElement(innerElement)
+        .build();
+    TypeSpec strong = TypeSpec.classBuilder("Outer")
+        .addOriginatingElement(outerElement)
+        .addType(inner)
+        .build();
+    TypeSpec weak = TypeSpec.classBuilder("Outer")
+        .originatingElementRetention(TypeSpec.ElementRetention.WEAK)
+        .addOriginatingElement(outerElement)
+        .addType(inner)
+        .build();
+    assertThat(strong.originatingElements).isInstanceOf(RandomAccess.class);
+    assertThat(weak.originatingElements).isNotInstanceOf(RandomAccess.class);
+    assertThat(weak.originatingElements.toArray())
+        .asList().containsExactly(outerElement, innerElement).inOrder();
+    assertThat(new ArrayList<>(weak.originatingElements))
+        .containsExactly(outerElement, innerElement).inOrder();
+  }
+
   @Test public void intersectionType() {
     TypeVariableName typeVariable = TypeVariableName.get("T", Comparator.class, Serializable.class);
     TypeSpec taco = TypeSpec.classBuilder("Taco")
@@ -2695,4 +2825,13 @@ public final class TypeSpecTest {
         + "class Taco {\n"
         + "}\n");
   }
+
+  @Test public void modifiersIterateInDeclarationOrder() {
+    TypeSpec taco = TypeSpec.classBuilder("Taco")
+        .addModifiers(Modifier.FINAL, Modifier.STATIC, Modifier.PUBLIC)
+        .build();
+    assertThat(taco.modifiers)
+        .containsExactly(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).inOrder();
+    assertThat(taco.toString()).isEqualTo("public static final class Taco {\n}\n");
+  }
 }
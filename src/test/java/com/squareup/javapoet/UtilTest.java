@@ -17,6 +17,9 @@ package com.squareup.javapoet;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 public class UtilTest {
@@ -63,6 +66,8 @@ public class UtilTest {
     stringLiteral("abc();\\n\"\n  + \"def();", "abc();\ndef();", " ");
     stringLiteral("This is \\\"quoted\\\"!", "This is \"quoted\"!", " ");
     stringLiteral("e^{i\\\\pi}+1=0", "e^{i\\pi}+1=0", " ");
+    stringLiteral("it's\\u0000\\u0085 ok\\r", "it's\u0000\u0085 ok\r", " ");
+    stringLiteral("a\\n\"\n  + \"\\n\"\n  + \"b", "a\n\nb", " ");
   }
 
   void stringLiteral(String string) {
@@ -72,4 +77,33 @@ public class UtilTest {
   void stringLiteral(String expected, String value, String indent) {
     assertEquals("\"" + expected + "\"", Util.stringLiteralWithDoubleQuotes(value, indent));
   }
+
+  @Test public void textBlock() {
+    assertEquals("\"\"\"\n  a\n  b\n  \"\"\"", Util.textBlockWithTripleQuotes("a\nb\n", " "));
+    assertEquals("\"\"\"\n  a\n\n  b\\\n  \"\"\"", Util.textBlockWithTripleQuotes("a\n\nb", " "));
+    assertEquals("\"\"\"\n  a \\s\n  b\\\n  \"\"\"", Util.textBlockWithTripleQuotes("a  \nb", " "));
+    assertEquals("\"\"\"\n  \"\"\\\"\"\n  \\\\'\\t\\\n  \"\"\"",
+        Util.textBlockWithTripleQuotes("\"\"\"\"\n\\'\t", " "));
+  }
+
+  @Test public void modifiedUtf8Length() {
+    assertEquals(0, Util.modifiedUtf8Length(""));
+    assertEquals(3, Util.modifiedUtf8Length("abc"));
+    assertEquals(2, Util.modifiedUtf8Length("\0"));
+    assertEquals(2, Util.modifiedUtf8Length("\u00ff"));
+    assertEquals(3, Util.modifiedUtf8Length("\u20ac"));
+    assertEquals(6, Util.modifiedUtf8Length("\ud83c\udf2e"));
+  }
+
+  @Test public void constantPoolChunks() {
+    assertEquals(Arrays.asList("abcdef", "ghij"), Util.constantPoolChunks("abcdefghij", 6));
+    assertEquals(Arrays.asList("\u20ac\u20ac", "\u20ac"),
+        Util.constantPoolChunks("\u20ac\u20ac\u20ac", 7));
+    assertEquals(Arrays.asList(""), Util.constantPoolChunks("", 6));
+  }
+
+  @Test public void constantPoolChunksKeepSurrogatePairs() {
+    List<String> chunks = Util.constantPoolChunks("abcd\ud83c\udf2e", 8);
+    assertEquals(Arrays.asList("abcd", "\ud83c\udf2e"), chunks);
+  }
 }